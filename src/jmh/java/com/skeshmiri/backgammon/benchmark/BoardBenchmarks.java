@@ -0,0 +1,158 @@
+package com.skeshmiri.backgammon.benchmark;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.GameState;
+import com.skeshmiri.backgammon.game.Move;
+import com.skeshmiri.backgammon.game.MoveType;
+import com.skeshmiri.backgammon.game.Perft;
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Throughput of the Board hot paths, run through the jmh Gradle task
+ *          which adds the GC profiler so allocation per operation is reported
+ *          next to every score
+ *
+ *          Positions are the same boards the perft files use, so results can
+ *          be compared with PerftRunner nodes/s
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmarks {
+	private static final String OPENING = "W 0 2 0 0 0 0 -5 0 -3 0 0 0 5 -5 0 0 0 3 0 5 0 0 0 0 -2 0 0 0";
+	private static final String CONTACT = "W 0 -2 -1 0 2 1 -2 0 -2 -1 0 1 2 -1 1 0 -2 -2 0 4 -1 -1 2 1 1 0 0 0";
+	private static final String BEAROFF = "W 0 -5 -3 -1 -3 -1 0 0 0 -1 0 -1 0 0 0 0 0 0 0 0 0 0 0 7 4 0 4 0";
+
+	/**
+	 * Board and roll for white to move, one per position benchmarked
+	 */
+	@State(Scope.Thread)
+	public static class PositionState {
+		@Param({ "opening", "contact", "double", "bearoff" })
+		public String position;
+
+		Board board;
+		int[] roll;
+
+		@Setup
+		public void setUp() {
+			if (position.equals("opening")) {
+				board = Perft.parseBoard(OPENING);
+				roll = new int[] { 3, 1 };
+			} else if (position.equals("contact")) {
+				board = Perft.parseBoard(CONTACT);
+				roll = new int[] { 5, 2 };
+			} else if (position.equals("double")) {
+				board = Perft.parseBoard(CONTACT);
+				roll = new int[] { 3, 3 };
+			} else {
+				board = Perft.parseBoard(BEAROFF);
+				roll = new int[] { 6, 4 };
+			}
+			board.setDices(roll);
+			board.setPlayers(true);
+			board.searchForValidMoves();
+		}
+	}
+
+	/**
+	 * Opening board and a random generator for the game benchmarks
+	 */
+	@State(Scope.Thread)
+	public static class OpeningState {
+		Board board;
+		Random random;
+		// 13/10 and the GUI undo of it
+		Move move = new Move(MoveType.NORMAL, 12, 3);
+		Move undo = new Move(MoveType.UNDO, 12, 3);
+		int[] roll = new int[] { 3, 1 };
+
+		@Setup
+		public void setUp() {
+			board = new Board();
+			random = new Random(42);
+		}
+	}
+
+	@Benchmark
+	public int searchForValidMoves(PositionState state) {
+		Board board = state.board;
+		board.setDices(state.roll);
+		board.setPlayers(true);
+		board.searchForValidMoves();
+		return board.getValidMoveList().size();
+	}
+
+	@Benchmark
+	public Board copyConstructor(PositionState state) {
+		return new Board(state.board);
+	}
+
+	@Benchmark
+	public int countWhiteAndBlack(PositionState state) {
+		return state.board.countWhite() + state.board.countBlack();
+	}
+
+	/**
+	 * GUI path: move then undo it the way MainWindow does, so the board is
+	 * the same before every call
+	 */
+	@Benchmark
+	public void moveAndUndo(OpeningState state, Blackhole blackhole) {
+		Board board = state.board;
+		board.setDices(state.roll);
+		board.setPlayers(true);
+		board.move(state.move);
+		blackhole.consume(board.getAmount(state.move.getEndField()));
+		board.move(state.undo);
+		board.recoverDiceForUndo();
+	}
+
+	/**
+	 * One game from the opening, both players picking a random valid play
+	 *
+	 * @return amount of turns played
+	 */
+	@Benchmark
+	public int selfPlayGame(OpeningState state) {
+		Random random = state.random;
+		Board game = new Board();
+		boolean isWhite = random.nextBoolean();
+		int turns = 0;
+		while (game.checkWin() == GameState.STILL_PLAYING) {
+			game.setDices(new int[] { 1 + random.nextInt(6), 1 + random.nextInt(6) });
+			game.setPlayers(isWhite);
+			ArrayList<Play> plays = game.findValidPlays();
+			if (!plays.isEmpty()) {
+				game.playTurn(plays.get(random.nextInt(plays.size())));
+			}
+			isWhite = !isWhite;
+			turns++;
+		}
+		return turns;
+	}
+}
@@ -0,0 +1,47 @@
+package com.skeshmiri.backgammon;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.skeshmiri.backgammon.bearoff.BearoffIndex;
+import com.skeshmiri.backgammon.bearoff.OneSidedBearoffGenerator;
+import com.skeshmiri.backgammon.bearoff.TwoSidedBearoff;
+import com.skeshmiri.backgammon.bearoff.TwoSidedBearoffGenerator;
+
+/**
+ * Command line tool building the bear off databases
+ * 
+ * usage: BearoffGenerator one-sided|two-sided file [max-pieces]
+ * 
+ * max-pieces defaults to 15 for one-sided, all layouts of a home board, and
+ * to 6 for two-sided. Two-sided takes at most TwoSidedBearoff.MAX_PIECES, 13,
+ * as the pairs of more pieces don't fit in one file mapping. Put the two
+ * sided file at TwoSidedBearoff.DEFAULT_FILE to have games and rollouts use it
+ */
+public class BearoffGenerator {
+
+	public static void main(String[] args) throws IOException {
+		boolean oneSided = args.length > 1 && args[0].equals("one-sided");
+		boolean twoSided = args.length > 1 && args[0].equals("two-sided");
+		if (!oneSided && !twoSided) {
+			System.err.println("usage: BearoffGenerator one-sided|two-sided file [max-pieces]");
+			System.exit(2);
+		}
+		int maxPieces = args.length > 2 ? Integer.parseInt(args[2])
+				: oneSided ? 15 : 6;
+		int limit = oneSided ? 15 : TwoSidedBearoff.MAX_PIECES;
+		if (maxPieces < 1 || maxPieces > limit) {
+			System.err.println("max-pieces of " + args[0] + " must be 1-" + limit);
+			System.exit(2);
+		}
+		long start = System.nanoTime();
+		if (oneSided) {
+			new OneSidedBearoffGenerator(maxPieces).write(Paths.get(args[1]));
+		} else {
+			new TwoSidedBearoffGenerator(maxPieces).write(Paths.get(args[1]));
+		}
+		System.out.printf("wrote %s database of %d layouts of up to %d pieces in %.1f s%n",
+				args[0], BearoffIndex.getPositions(maxPieces), maxPieces,
+				(System.nanoTime() - start) / 1e9);
+	}
+}
@@ -0,0 +1,67 @@
+package com.skeshmiri.backgammon;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import com.skeshmiri.backgammon.bearoff.TwoSidedBearoff;
+import com.skeshmiri.backgammon.book.OpeningBook;
+import com.skeshmiri.backgammon.book.OpeningBookGenerator;
+import com.skeshmiri.backgammon.engine.AnalysisLevel;
+import com.skeshmiri.backgammon.engine.ClassifyingEvaluator;
+import com.skeshmiri.backgammon.engine.Evaluator;
+import com.skeshmiri.backgammon.engine.EvaluatorMoveChooser;
+import com.skeshmiri.backgammon.engine.NeuralNetEvaluator;
+import com.skeshmiri.backgammon.engine.RaceEvaluator;
+import com.skeshmiri.backgammon.engine.Rollout;
+import com.skeshmiri.backgammon.game.GreedyMoveChooser;
+import com.skeshmiri.backgammon.game.MoveChooser;
+import com.skeshmiri.backgammon.game.RolloutDice;
+
+/**
+ * Command line tool building the opening book
+ * 
+ * usage: BookGenerator file [games [plies]]
+ * 
+ * games are rolled out for every play, 1296 by default, plies is 1 for the
+ * first play of a game or 2 (default) for the answers too. Games are played
+ * by the neural net from NeuralNetEvaluator.getDefault(), with races left to
+ * RaceEvaluator, which also drops plays far behind before the rollout, or by
+ * the greedy chooser when there are no weights. Put the file at
+ * OpeningBook.DEFAULT_FILE to have SelfPlay games and the GUI hint use it
+ */
+public class BookGenerator {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("usage: BookGenerator file [games [plies]]");
+			System.exit(2);
+		}
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 1296;
+		int plies = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+		NeuralNetEvaluator net = NeuralNetEvaluator.getDefault();
+		Evaluator evaluator = net == null ? null : new ClassifyingEvaluator(
+				net, new RaceEvaluator());
+		Supplier<MoveChooser> choosers = net == null ? GreedyMoveChooser::new
+				: () -> new EvaluatorMoveChooser(evaluator);
+		// same seed for every task, so every play gets the same rolls
+		Rollout rollout = new Rollout(ForkJoinPool.commonPool(), choosers,
+				() -> new RolloutDice(1, 2));
+		rollout.setBearoffDatabase(TwoSidedBearoff.getDefault());
+		// no opening book is set, an older book must not pick plays in its
+		// own rollouts
+		OpeningBookGenerator generator = new OpeningBookGenerator(rollout,
+				games);
+		if (net != null) {
+			generator.setFilter(evaluator, AnalysisLevel.DEEP.getFilter());
+		}
+
+		long start = System.nanoTime();
+		OpeningBook book = generator.generate(plies);
+		book.save(Paths.get(args[0]));
+		System.out.printf("wrote %d book entries, %d games a play, in %.1f s%n",
+				book.size(), games, (System.nanoTime() - start) / 1e9);
+	}
+}
@@ -0,0 +1,46 @@
+package com.skeshmiri.backgammon;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.skeshmiri.backgammon.game.Xoshiro256StarStar;
+
+/**
+ * Command line tool writing a dice file for MappedDice, one byte per roll
+ * holding the outcome 0-35. Same seed writes the same file
+ * 
+ * usage: DiceFileWriter file rolls [seed]
+ */
+public class DiceFileWriter {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2 && args.length != 3) {
+			System.err.println("usage: DiceFileWriter file rolls [seed]");
+			System.exit(2);
+		}
+		long rolls = Long.parseLong(args[1]);
+		if (rolls < 1 || rolls > Integer.MAX_VALUE) {
+			System.err.println("rolls must be 1 to " + Integer.MAX_VALUE);
+			System.exit(2);
+		}
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : System
+				.nanoTime();
+		Xoshiro256StarStar rn = new Xoshiro256StarStar(seed);
+
+		long start = System.nanoTime();
+		byte[] buffer = new byte[1 << 16];
+		try (OutputStream out = new FileOutputStream(args[0])) {
+			for (long written = 0; written < rolls;) {
+				int length = (int) Math.min(buffer.length, rolls - written);
+				for (int i = 0; i < length; i++) {
+					buffer[i] = (byte) rn.nextInt(36);
+				}
+				out.write(buffer, 0, length);
+				written += length;
+			}
+		}
+		System.out.printf("wrote %d rolls with seed %d in %.2f s%n", rolls,
+				seed, (System.nanoTime() - start) / 1e9);
+	}
+}
@@ -0,0 +1,94 @@
+package com.skeshmiri.backgammon;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Perft;
+
+/**
+ * Command line perft tool, counts plays from stored boards to a depth and
+ * prints node counts and nodes per second. Counts can be checked against
+ * or written to a golden file of lines "name depth nodes"
+ * 
+ * usage: PerftRunner positions-file depth [golden-file [--write]]
+ * 
+ * positions file has one board per line: name, W or B to move and the 28
+ * packed field amounts. Lines starting with # are skipped
+ */
+public class PerftRunner {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: PerftRunner positions-file depth "
+					+ "[golden-file [--write]]");
+			System.exit(2);
+		}
+		int depth = Integer.parseInt(args[1]);
+		Map<String, String> golden = new LinkedHashMap<String, String>();
+		boolean write = args.length > 3 && args[3].equals("--write");
+		if (args.length > 2 && !write) {
+			for (String line : readLines(args[2])) {
+				String[] parts = line.split("\\s+");
+				golden.put(parts[0] + " " + parts[1], parts[2]);
+			}
+		}
+
+		StringBuilder counts = new StringBuilder();
+		int failures = 0;
+		long totalNodes = 0;
+		long totalNanos = 0;
+		for (String line : readLines(args[0])) {
+			String name = line.substring(0, line.indexOf(' '));
+			String boardText = line.substring(line.indexOf(' ') + 1);
+			Board board = Perft.parseBoard(boardText);
+			boolean isWhite = boardText.startsWith("W");
+
+			for (int d = 1; d <= depth; d++) {
+				long start = System.nanoTime();
+				long nodes = Perft.count(board, isWhite, d);
+				long nanos = System.nanoTime() - start;
+				totalNodes += nodes;
+				totalNanos += nanos;
+
+				String expected = golden.get(name + " " + d);
+				String result = "";
+				if (expected != null) {
+					result = expected.equals(String.valueOf(nodes)) ? "ok"
+							: "MISMATCH expected " + expected;
+					if (!result.equals("ok"))
+						failures++;
+				}
+				System.out.printf("%-12s depth %d %12d nodes %10.0f nodes/s %s%n",
+						name, d, nodes, nodes * 1e9 / Math.max(nanos, 1), result);
+				counts.append(name).append(' ').append(d).append(' ')
+						.append(nodes).append('\n');
+			}
+		}
+		System.out.printf("total %d nodes in %.2f s, %.0f nodes/s%n",
+				totalNodes, totalNanos / 1e9,
+				totalNodes * 1e9 / Math.max(totalNanos, 1));
+
+		if (write) {
+			try (PrintWriter out = new PrintWriter(args[2], "UTF-8")) {
+				out.print(counts);
+			}
+		}
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static List<String> readLines(String file) throws IOException {
+		List<String> lines = Files.readAllLines(Paths.get(file),
+				StandardCharsets.UTF_8);
+		lines.removeIf(line -> line.trim().isEmpty() || line.startsWith("#"));
+		return lines;
+	}
+}
@@ -0,0 +1,122 @@
+package com.skeshmiri.backgammon;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.skeshmiri.backgammon.bearoff.TwoSidedBearoff;
+import com.skeshmiri.backgammon.book.OpeningBook;
+import com.skeshmiri.backgammon.engine.AnalysisLevel;
+import com.skeshmiri.backgammon.engine.ClassifyingEvaluator;
+import com.skeshmiri.backgammon.engine.Evaluator;
+import com.skeshmiri.backgammon.engine.EvaluatorMoveChooser;
+import com.skeshmiri.backgammon.engine.NeuralNetEvaluator;
+import com.skeshmiri.backgammon.engine.RaceEvaluator;
+import com.skeshmiri.backgammon.game.Dice;
+import com.skeshmiri.backgammon.game.GameDriver;
+import com.skeshmiri.backgammon.game.GreedyMoveChooser;
+import com.skeshmiri.backgammon.game.MappedDice;
+import com.skeshmiri.backgammon.game.MoveChooser;
+import com.skeshmiri.backgammon.game.RandomMoveChooser;
+
+/**
+ * Command line self play, plays games without the GUI and prints games per
+ * second, average turns and how often each color won
+ *
+ * usage: SelfPlay games [white-chooser black-chooser [seed | dice-file]]
+ *
+ * choosers are "random" (default), "greedy", "net" for the neural net from
+ * NeuralNetEvaluator.getDefault() or "net2" for a filtered two ply search
+ * with it at AnalysisLevel.NORMAL. Both score races with RaceEvaluator.
+ * With a seed the dice and the random choosers throw the same on every run.
+ * With a file from
+ * DiceFileWriter every game N reads its rolls from the same place in the
+ * file, so two choosers can be compared on exactly the same luck
+ */
+public class SelfPlay {
+
+	/**
+	 * rolls of a dice file kept for each game
+	 */
+	private static final int ROLLS_PER_GAME = 256;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1 && args.length != 3 && args.length != 4) {
+			System.err.println("usage: SelfPlay games [white-chooser black-chooser [seed | dice-file]]");
+			System.err.println("choosers: random, greedy, net, net2");
+			System.exit(2);
+		}
+		long games = Long.parseLong(args[0]);
+		Long seed = null;
+		Dice dice = new Dice();
+		if (args.length > 3 && args[3].matches("-?\\d+")) {
+			seed = Long.parseLong(args[3]);
+			dice = new Dice(seed);
+		} else if (args.length > 3) {
+			dice = new MappedDice(MappedDice.map(Paths.get(args[3])),
+					ROLLS_PER_GAME);
+		}
+		MoveChooser white = getChooser(args.length > 1 ? args[1] : "random",
+				seed);
+		MoveChooser black = getChooser(args.length > 2 ? args[2] : "random",
+				seed == null ? null : seed + 1);
+		GameDriver driver = new GameDriver(white, black, dice);
+		driver.setBearoffDatabase(TwoSidedBearoff.getDefault());
+		driver.setOpeningBook(OpeningBook.getDefault());
+
+		// games settled from the bear off database count their winning chance
+		double whiteWins = 0;
+		long totalTurns = 0;
+		long start = System.nanoTime();
+		long lastReport = start;
+		for (long game = 1; game <= games; game++) {
+			dice.startGame(game - 1);
+			driver.playGame();
+			whiteWins += driver.getWhiteWinningChance();
+			totalTurns += driver.getTurns();
+
+			long now = System.nanoTime();
+			if (now - lastReport > 10_000_000_000L || game == games) {
+				lastReport = now;
+				double seconds = (now - start) / 1e9;
+				System.out.printf(
+						"%d games, %.1f games/s, %.1f turns/game, white %.2f%% black %.2f%%%n",
+						game, game / seconds, (double) totalTurns / game,
+						100.0 * whiteWins / game, 100.0 * (game - whiteWins) / game);
+			}
+		}
+	}
+
+	private static MoveChooser getChooser(String name, Long seed) {
+		switch (name) {
+		case "random":
+			return seed == null ? new RandomMoveChooser()
+					: new RandomMoveChooser(seed);
+		case "greedy":
+			return new GreedyMoveChooser();
+		case "net":
+			return new EvaluatorMoveChooser(getEvaluator());
+		case "net2":
+			return AnalysisLevel.NORMAL.createChooser(getEvaluator());
+		default:
+			throw new IllegalArgumentException("unknown chooser: " + name);
+		}
+	}
+
+	/**
+	 * @return net for boards in contact, RaceEvaluator for the rest
+	 */
+	private static Evaluator getEvaluator() {
+		return new ClassifyingEvaluator(getNet(), new RaceEvaluator());
+	}
+
+	private static NeuralNetEvaluator getNet() {
+		NeuralNetEvaluator net = NeuralNetEvaluator.getDefault();
+		if (net == null) {
+			throw new IllegalArgumentException("no weights file, set -D"
+					+ NeuralNetEvaluator.FILE_PROPERTY + " or put "
+					+ NeuralNetEvaluator.DEFAULT_FILE
+					+ " in the working directory");
+		}
+		return net;
+	}
+}
@@ -0,0 +1,132 @@
+package com.skeshmiri.backgammon.bearoff;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Perfect index of the pieces one player has in the home board,
+ *          points 1-6 counted from where pieces are borne off
+ *
+ *          Layouts are ordered by the amount of pieces first, so the layouts
+ *          of up to n pieces are always the first C(n + 6, 6) indexes. Within
+ *          the same amount the layout is seen as pieces and 5 separators in a
+ *          row and ranked by where the separators are, in the combinatorial
+ *          number system. No table is needed and nothing is allocated
+ *
+ */
+public final class BearoffIndex {
+	public static final int POINTS = 6;
+
+	/**
+	 * binomial coefficients C(n, k) for n up to 21
+	 */
+	private static final int[][] BINOMIALS = new int[22][POINTS + 1];
+
+	static {
+		for (int n = 0; n < BINOMIALS.length; n++) {
+			BINOMIALS[n][0] = 1;
+			for (int k = 1; k <= POINTS && k <= n; k++) {
+				BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1]
+						+ (k <= n - 1 ? BINOMIALS[n - 1][k] : 0);
+			}
+		}
+	}
+
+	private BearoffIndex() {
+	}
+
+	/**
+	 * @param maxPieces
+	 *            most pieces in a layout, 0-15
+	 * @return amount of layouts of 0 to maxPieces pieces on the 6 points
+	 */
+	public static int getPositions(int maxPieces) {
+		return BINOMIALS[maxPieces + POINTS][POINTS];
+	}
+
+	/**
+	 * @param points
+	 *            pieces on points 1-6, stored from index 0
+	 * @return index of the layout
+	 */
+	public static int indexOf(int[] points) {
+		int pieces = 0;
+		int rank = 0;
+		for (int i = 0; i < POINTS; i++) {
+			pieces += points[i];
+			if (i < POINTS - 1) {
+				// separator i + 1 is after all pieces so far
+				rank += BINOMIALS[pieces + i][i + 1];
+			}
+		}
+		return BINOMIALS[pieces + POINTS - 1][POINTS] + rank;
+	}
+
+	/**
+	 * Index of a player's home board, without checking the player has all
+	 * pieces at home
+	 * 
+	 * @param board
+	 *            board to read
+	 * @param player
+	 *            white or black
+	 * @return index of the layout
+	 */
+	public static int indexOf(Board board, Color player) {
+		int pieces = 0;
+		int rank = 0;
+		for (int i = 0; i < POINTS; i++) {
+			pieces += board.getAmount(getField(player, i + 1));
+			if (i < POINTS - 1) {
+				rank += BINOMIALS[pieces + i][i + 1];
+			}
+		}
+		return BINOMIALS[pieces + POINTS - 1][POINTS] + rank;
+	}
+
+	/**
+	 * Reverse of indexOf
+	 * 
+	 * @param index
+	 *            index of a layout
+	 * @param points
+	 *            filled with pieces on points 1-6, from index 0
+	 */
+	public static void layoutOf(int index, int[] points) {
+		int pieces = 0;
+		while (getPositions(pieces) <= index) {
+			pieces++;
+		}
+		int rank = index - (pieces == 0 ? 0 : getPositions(pieces - 1));
+		// separators from the last one, each as far right as the rank allows
+		int slot = pieces + POINTS - 1;
+		int after = pieces;
+		for (int k = POINTS - 1; k >= 1; k--) {
+			slot--;
+			while (BINOMIALS[slot][k] > rank) {
+				slot--;
+			}
+			rank -= BINOMIALS[slot][k];
+			// pieces between this separator and the one after it
+			int before = slot - (k - 1);
+			points[k] = after - before;
+			after = before;
+		}
+		points[0] = after;
+	}
+
+	/**
+	 * @param player
+	 *            white or black
+	 * @param point
+	 *            home point 1-6
+	 * @return field of the point for the player
+	 */
+	public static int getField(Color player, int point) {
+		return player == Color.WHITE ? Board.BLACKBAR - point : point;
+	}
+}
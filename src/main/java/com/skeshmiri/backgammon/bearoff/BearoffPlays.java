@@ -0,0 +1,83 @@
+package com.skeshmiri.backgammon.bearoff;
+
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+import com.skeshmiri.backgammon.game.Dice;
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Finds the layouts a home board layout can be played to, using
+ *          Board.findValidPlays so the databases follow the same bear off
+ *          rules as the game. Layouts are played as white with black already
+ *          borne off, the other player doesn't matter once nobody can hit
+ *
+ */
+class BearoffPlays {
+	private Board board = new Board();
+	private byte[] position = new byte[Board.TOTAL_NO_OF_FIELDS];
+	private int[] points = new int[BearoffIndex.POINTS];
+
+	/**
+	 * @param index
+	 *            layout to play from, not empty
+	 * @param roll
+	 *            one of Dice.DISTINCT_ROLLS
+	 * @return indexes of the different layouts after every valid play
+	 */
+	int[] getNextLayouts(int index, int[] roll) {
+		BearoffIndex.layoutOf(index, points);
+		int pieces = 0;
+		for (int i = 0; i < points.length; i++) {
+			position[BearoffIndex.getField(Color.WHITE, i + 1)] = (byte) points[i];
+			pieces += points[i];
+		}
+		position[Board.WHITEBEAROFF] = (byte) (15 - pieces);
+		position[Board.BLACKBEAROFF] = -15;
+		board.setCheckers(position);
+		board.setDices(roll);
+		board.setPlayers(true);
+
+		ArrayList<Play> plays = board.findValidPlays();
+		int[] layouts = new int[plays.size()];
+		for (int p = 0; p < layouts.length; p++) {
+			byte[] after = plays.get(p).getPosition();
+			for (int i = 0; i < points.length; i++) {
+				points[i] = after[BearoffIndex.getField(Color.WHITE, i + 1)];
+			}
+			layouts[p] = BearoffIndex.indexOf(points);
+		}
+		return layouts;
+	}
+
+	/**
+	 * Next layouts for every layout and roll, in the order of
+	 * Dice.DISTINCT_ROLLS
+	 * 
+	 * @param positions
+	 *            layouts to find plays for, from index 0
+	 * @return next layouts by layout index and roll, empty for layout 0
+	 */
+	static int[][][] getAllNextLayouts(int positions) {
+		final int[][][] next = new int[positions][][];
+		final ThreadLocal<BearoffPlays> plays = ThreadLocal
+				.withInitial(BearoffPlays::new);
+		next[0] = new int[Dice.DISTINCT_ROLLS.length][0];
+		IntStream.range(1, positions).parallel()
+				.forEach(index -> {
+					int[][] byRoll = new int[Dice.DISTINCT_ROLLS.length][];
+					for (int r = 0; r < byRoll.length; r++) {
+						byRoll[r] = plays.get().getNextLayouts(index,
+								Dice.DISTINCT_ROLLS[r]);
+					}
+					next[index] = byRoll;
+				});
+		return next;
+	}
+}
@@ -0,0 +1,154 @@
+package com.skeshmiri.backgammon.bearoff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          One sided bear off database, read from a memory mapped file made by
+ *          OneSidedBearoffGenerator. For every layout of up to maxPieces
+ *          pieces in a home board it knows the expected rolls to bear all of
+ *          them off and the chance to be done in exactly n rolls, playing to
+ *          finish in the fewest rolls and ignoring the other player
+ *
+ *          File: magic, maxPieces and MAX_ROLLS as ints, then one record per
+ *          BearoffIndex index: expected rolls as float and MAX_ROLLS chances
+ *          as unsigned 16 bit fractions of 65535, the last one holding
+ *          MAX_ROLLS - 1 or more rolls
+ *
+ *          Lookups only read the mapping, one database can be shared by all
+ *          threads
+ *
+ */
+public class OneSidedBearoff {
+	public static final int MAGIC = 0x42474F31;
+	public static final int MAX_ROLLS = 32;
+	static final int HEADER_SIZE = 12;
+	static final int RECORD_SIZE = 4 + 2 * MAX_ROLLS;
+
+	private ByteBuffer records;
+	private int maxPieces;
+
+	/**
+	 * @param records
+	 *            whole database file, e.g. memory mapped
+	 */
+	public OneSidedBearoff(ByteBuffer records) {
+		if (records.getInt(0) != MAGIC || records.getInt(8) != MAX_ROLLS) {
+			throw new IllegalArgumentException("not a one sided bear off database");
+		}
+		this.records = records;
+		maxPieces = records.getInt(4);
+		if (records.capacity() != HEADER_SIZE
+				+ (long) RECORD_SIZE * BearoffIndex.getPositions(maxPieces)) {
+			throw new IllegalArgumentException("bear off database is cut short");
+		}
+	}
+
+	/**
+	 * Maps a database file read only
+	 * 
+	 * @param file
+	 *            file written by OneSidedBearoffGenerator
+	 * @return database reading from the file
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public static OneSidedBearoff open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			return new OneSidedBearoff(channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public int getMaxPieces() {
+		return maxPieces;
+	}
+
+	/**
+	 * @param board
+	 *            any board
+	 * @param player
+	 *            white or black
+	 * @return index of the player's home board or -1 if the player has pieces
+	 *         outside of home or more pieces than the database holds
+	 */
+	public int indexOf(Board board, Color player) {
+		if (!board.isAllAtHome(player)) {
+			return -1;
+		}
+		int index = BearoffIndex.indexOf(board, player);
+		return index < BearoffIndex.getPositions(maxPieces) ? index : -1;
+	}
+
+	/**
+	 * @param index
+	 *            index from indexOf
+	 * @return expected rolls to bear off all pieces
+	 */
+	public float getExpectedRolls(int index) {
+		return records.getFloat(HEADER_SIZE + index * RECORD_SIZE);
+	}
+
+	/**
+	 * @param index
+	 *            index from indexOf
+	 * @param rolls
+	 *            0 to MAX_ROLLS - 1
+	 * @return chance to bear off the last piece with exactly that many rolls
+	 */
+	public double getOffInRolls(int index, int rolls) {
+		return (records.getChar(HEADER_SIZE + index * RECORD_SIZE + 4 + 2
+				* rolls)) / 65535.0;
+	}
+
+	/**
+	 * Chance the player to move wins a race where both players are bearing
+	 * off. Both players are taken to play to finish in the fewest rolls
+	 * 
+	 * @param board
+	 *            board where both players have all pieces at home
+	 * @param onRoll
+	 *            player who throws next
+	 * @return winning chance of onRoll, or -1 if a player is not in the
+	 *         database
+	 */
+	public double getWinningChance(Board board, Color onRoll) {
+		Color other = onRoll == Color.WHITE ? Color.BLACK : Color.WHITE;
+		int own = indexOf(board, onRoll);
+		int opponent = indexOf(board, other);
+		if (own < 0 || opponent < 0) {
+			return -1;
+		}
+		return getWinningChance(own, opponent);
+	}
+
+	/**
+	 * @param own
+	 *            index of the player to move
+	 * @param opponent
+	 *            index of the other player
+	 * @return chance the player to move is off first, as they throw first
+	 *         they win when done in as many rolls as the opponent or fewer
+	 */
+	public double getWinningChance(int own, int opponent) {
+		double win = 0;
+		double opponentNotDone = 1;
+		for (int n = 0; n < MAX_ROLLS; n++) {
+			// opponent needs n or more rolls
+			win += getOffInRolls(own, n) * opponentNotDone;
+			opponentNotDone -= getOffInRolls(opponent, n);
+		}
+		return Math.min(Math.max(win, 0), 1);
+	}
+}
@@ -0,0 +1,142 @@
+package com.skeshmiri.backgammon.bearoff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skeshmiri.backgammon.game.Dice;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Builds the one sided bear off database read by OneSidedBearoff
+ *
+ *          Every play made by a layout leads to a layout with fewer pips, so
+ *          layouts are solved from the fewest pips up. For every roll the play
+ *          with the fewest expected rolls is taken, its chances of being off
+ *          in n rolls become the chances of n + 1. Plays come from
+ *          BearoffPlays, so the database follows the same bear off rules as
+ *          the game. Layouts with the same pips don't depend on each other and
+ *          are solved in parallel
+ *
+ */
+public class OneSidedBearoffGenerator {
+	private int maxPieces;
+	private int positions;
+	private double[] expectedRolls;
+	private double[][] offInRolls;
+	private int[][][] nextLayouts;
+
+	/**
+	 * @param maxPieces
+	 *            most pieces in a layout, 1-15
+	 */
+	public OneSidedBearoffGenerator(int maxPieces) {
+		this.maxPieces = maxPieces;
+		positions = BearoffIndex.getPositions(maxPieces);
+		expectedRolls = new double[positions];
+		offInRolls = new double[positions][];
+	}
+
+	/**
+	 * Solves all layouts
+	 *
+	 * @return whole database as it is stored in the file
+	 */
+	public ByteBuffer generate() {
+		nextLayouts = BearoffPlays.getAllNextLayouts(positions);
+		offInRolls[0] = new double[OneSidedBearoff.MAX_ROLLS];
+		offInRolls[0][0] = 1;
+		for (List<Integer> level : getPipLevels()) {
+			level.parallelStream().forEach(this::solve);
+		}
+
+		ByteBuffer records = ByteBuffer.allocate(OneSidedBearoff.HEADER_SIZE
+				+ OneSidedBearoff.RECORD_SIZE * positions);
+		records.order(ByteOrder.BIG_ENDIAN);
+		records.putInt(OneSidedBearoff.MAGIC).putInt(maxPieces)
+				.putInt(OneSidedBearoff.MAX_ROLLS);
+		for (int index = 0; index < positions; index++) {
+			records.putFloat((float) expectedRolls[index]);
+			for (double chance : offInRolls[index]) {
+				records.putChar((char) Math.round(chance * 65535));
+			}
+		}
+		records.flip();
+		return records;
+	}
+
+	/**
+	 * Solves all layouts and writes them to a file
+	 *
+	 * @param file
+	 *            file to write, replaced if it is there
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void write(Path file) throws IOException {
+		ByteBuffer records = generate();
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (records.hasRemaining()) {
+				channel.write(records);
+			}
+		}
+	}
+
+	/**
+	 * @return indexes of all layouts but the empty one grouped by pips, from
+	 *         the fewest pips
+	 */
+	private List<List<Integer>> getPipLevels() {
+		List<List<Integer>> levels = new ArrayList<List<Integer>>();
+		int[] points = new int[BearoffIndex.POINTS];
+		for (int index = 1; index < positions; index++) {
+			BearoffIndex.layoutOf(index, points);
+			int pips = 0;
+			for (int i = 0; i < points.length; i++) {
+				pips += points[i] * (i + 1);
+			}
+			while (levels.size() <= pips) {
+				levels.add(new ArrayList<Integer>());
+			}
+			levels.get(pips).add(index);
+		}
+		return levels;
+	}
+
+	/**
+	 * Works out one layout from the layouts with fewer pips
+	 */
+	private void solve(int index) {
+		double expected = 0;
+		double[] chances = new double[OneSidedBearoff.MAX_ROLLS];
+		for (int r = 0; r < Dice.DISTINCT_ROLLS.length; r++) {
+			double chance = Dice.getChance(Dice.DISTINCT_ROLLS[r]);
+			int best = -1;
+			for (int next : nextLayouts[index][r]) {
+				if (best < 0 || expectedRolls[next] < expectedRolls[best]) {
+					best = next;
+				}
+			}
+
+			expected += chance * expectedRolls[best];
+			double[] bestChances = offInRolls[best];
+			for (int n = 0; n < chances.length; n++) {
+				// last one keeps everything that takes that long or longer
+				chances[Math.min(n + 1, chances.length - 1)] += chance
+						* bestChances[n];
+			}
+		}
+		expectedRolls[index] = 1 + expected;
+		offInRolls[index] = chances;
+	}
+}
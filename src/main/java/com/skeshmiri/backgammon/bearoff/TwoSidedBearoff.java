@@ -0,0 +1,194 @@
+package com.skeshmiri.backgammon.bearoff;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.skeshmiri.backgammon.game.BearoffDatabase;
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Two sided bear off database, read from a memory mapped file made by
+ *          TwoSidedBearoffGenerator. When both players have all pieces at home
+ *          and at most maxPieces left, it knows the exact chance the player to
+ *          move wins with the best play by both sides, for maxPieces up to
+ *          MAX_PIECES. Gammons can't happen any more with so few pieces left
+ *
+ *          File: magic and maxPieces as ints, then the chance for every pair
+ *          of BearoffIndex indexes (player to move * positions + opponent) as
+ *          an unsigned 16 bit fraction of 65535
+ *
+ *          Lookups only read the mapping, one database can be shared by all
+ *          threads. SelfPlay and BookGenerator pass getDefault() to their
+ *          games, the GUI hint plays bear offs from it with getBestPlay
+ *
+ */
+public class TwoSidedBearoff implements BearoffDatabase {
+	public static final int MAGIC = 0x42475432;
+	static final int HEADER_SIZE = 8;
+
+	/**
+	 * most pieces per player a database can hold. 13 gives 27132 layouts, so
+	 * pair indexes and file offsets still fit in an int and the file of
+	 * 1.5 GB in one mapping. 14 would need 3 GB
+	 */
+	public static final int MAX_PIECES = 13;
+
+	/**
+	 * system property with the file getDefault() opens, if it is not set
+	 * DEFAULT_FILE in the working directory is used
+	 */
+	public static final String FILE_PROPERTY = "backgammon.bearoff.twosided";
+	public static final String DEFAULT_FILE = "bearoff-two-sided.db";
+
+	private static TwoSidedBearoff defaultDatabase;
+	private static boolean defaultLoaded;
+
+	private ByteBuffer chances;
+	private int maxPieces;
+	private int positions;
+
+	/**
+	 * @param chances
+	 *            whole database file, e.g. memory mapped
+	 */
+	public TwoSidedBearoff(ByteBuffer chances) {
+		if (chances.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("not a two sided bear off database");
+		}
+		this.chances = chances;
+		maxPieces = chances.getInt(4);
+		if (maxPieces < 1 || maxPieces > MAX_PIECES) {
+			throw new IllegalArgumentException("bear off database of "
+					+ maxPieces + " pieces");
+		}
+		positions = BearoffIndex.getPositions(maxPieces);
+		if (chances.capacity() != HEADER_SIZE + 2L * positions * positions) {
+			throw new IllegalArgumentException("bear off database is cut short");
+		}
+	}
+
+	/**
+	 * Maps a database file read only
+	 * 
+	 * @param file
+	 *            file written by TwoSidedBearoffGenerator
+	 * @return database reading from the file
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public static TwoSidedBearoff open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			return new TwoSidedBearoff(channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Database from the file in FILE_PROPERTY or DEFAULT_FILE, opened on the
+	 * first call
+	 * 
+	 * @return database or null if there is no file
+	 */
+	public static synchronized TwoSidedBearoff getDefault() {
+		if (!defaultLoaded) {
+			defaultLoaded = true;
+			Path file = Paths.get(System.getProperty(FILE_PROPERTY,
+					DEFAULT_FILE));
+			if (Files.isRegularFile(file)) {
+				try {
+					defaultDatabase = open(file);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+		return defaultDatabase;
+	}
+
+	public int getMaxPieces() {
+		return maxPieces;
+	}
+
+	/**
+	 * @param board
+	 *            any board
+	 * @param onRoll
+	 *            player who throws next
+	 * @return chance onRoll wins, or -1 if a player has pieces outside of home
+	 *         or more pieces left than the database holds
+	 */
+	@Override
+	public double getWinningChance(Board board, Color onRoll) {
+		Color other = onRoll == Color.WHITE ? Color.BLACK : Color.WHITE;
+		if (!board.isAllAtHome(onRoll) || !board.isAllAtHome(other)) {
+			return -1;
+		}
+		int own = BearoffIndex.indexOf(board, onRoll);
+		int opponent = BearoffIndex.indexOf(board, other);
+		if (own >= positions || opponent >= positions) {
+			return -1;
+		}
+		return getWinningChance(own, opponent);
+	}
+
+	/**
+	 * @param play
+	 *            play found by findValidPlays
+	 * @return chance the player who made the play wins, or -1 if the board
+	 *         after it is not in the database
+	 */
+	public double getWinningChance(Play play) {
+		Board after = new Board();
+		after.setCheckers(play.getPosition());
+		double chance = getWinningChance(after,
+				play.getPlayer() == Color.WHITE ? Color.BLACK : Color.WHITE);
+		return chance < 0 ? -1 : 1 - chance;
+	}
+
+	/**
+	 * @param plays
+	 *            plays of one roll, as from findValidPlays()
+	 * @return play with the highest winning chance, first one on ties, or
+	 *         null if the board after a play is not in the database
+	 */
+	public Play getBestPlay(List<? extends Play> plays) {
+		Play best = null;
+		double bestChance = -1;
+		for (Play play : plays) {
+			double chance = getWinningChance(play);
+			if (chance < 0) {
+				return null;
+			}
+			if (chance > bestChance) {
+				best = play;
+				bestChance = chance;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param own
+	 *            index of the player to move
+	 * @param opponent
+	 *            index of the other player
+	 * @return chance the player to move wins
+	 */
+	public double getWinningChance(int own, int opponent) {
+		return chances.getChar(HEADER_SIZE + 2 * (own * positions + opponent)) / 65535.0;
+	}
+}
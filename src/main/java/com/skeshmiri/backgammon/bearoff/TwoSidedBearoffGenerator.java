@@ -0,0 +1,151 @@
+package com.skeshmiri.backgammon.bearoff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+import com.skeshmiri.backgammon.game.Dice;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Builds the two sided bear off database read by TwoSidedBearoff,
+ *          by retrograde dynamic programming
+ *
+ *          The chance of the player to move is the chance of each roll times
+ *          the best play's chance, which is one minus the opponent's chance
+ *          of winning from there with the roles swapped. Every play takes
+ *          pips off the board, so pairs are solved in order of the pips of
+ *          both players together and every pair only reads pairs with fewer
+ *          pips. Pairs with the same pips are solved in parallel on all cores
+ *
+ *          The plays of each layout only depend on the layout, so they are
+ *          found once with BearoffPlays and shared by all opponents
+ *
+ */
+public class TwoSidedBearoffGenerator {
+	private int maxPieces;
+	private int positions;
+	private double[] chances;
+	private int[][][] nextLayouts;
+	private int[] layoutPips;
+	private int[][] layoutsByPips;
+
+	/**
+	 * @param maxPieces
+	 *            most pieces each player has left, 1 to
+	 *            TwoSidedBearoff.MAX_PIECES. 6 gives 924 layouts and about
+	 *            850000 pairs, every pair takes 8 bytes while generating
+	 * @throws IllegalArgumentException
+	 *             if maxPieces is out of range
+	 */
+	public TwoSidedBearoffGenerator(int maxPieces) {
+		if (maxPieces < 1 || maxPieces > TwoSidedBearoff.MAX_PIECES) {
+			throw new IllegalArgumentException("max pieces must be 1-"
+					+ TwoSidedBearoff.MAX_PIECES + ", not " + maxPieces);
+		}
+		this.maxPieces = maxPieces;
+		positions = BearoffIndex.getPositions(maxPieces);
+	}
+
+	/**
+	 * Solves all pairs of layouts
+	 *
+	 * @return whole database as it is stored in the file
+	 */
+	public ByteBuffer generate() {
+		chances = new double[positions * positions];
+		nextLayouts = BearoffPlays.getAllNextLayouts(positions);
+		groupByPips();
+
+		// a player who has borne off everything has won
+		for (int layout = 1; layout < positions; layout++) {
+			chances[layout] = 1;
+		}
+		for (int pips = 1; pips < 2 * layoutsByPips.length - 1; pips++) {
+			final int totalPips = pips;
+			IntStream.range(Math.max(1, pips - layoutsByPips.length + 1),
+					Math.min(pips, layoutsByPips.length - 1) + 1)
+					.boxed()
+					.flatMapToInt(ownPips -> IntStream.of(layoutsByPips[ownPips]))
+					.parallel()
+					.forEach(own -> solve(own, totalPips));
+		}
+
+		ByteBuffer file = ByteBuffer.allocate(TwoSidedBearoff.HEADER_SIZE + 2
+				* chances.length);
+		file.putInt(TwoSidedBearoff.MAGIC).putInt(maxPieces);
+		for (double chance : chances) {
+			file.putChar((char) Math.round(chance * 65535));
+		}
+		file.flip();
+		return file;
+	}
+
+	/**
+	 * Solves all pairs of layouts and writes them to a file
+	 *
+	 * @param file
+	 *            file to write, replaced if it is there
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void write(Path file) throws IOException {
+		ByteBuffer records = generate();
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (records.hasRemaining()) {
+				channel.write(records);
+			}
+		}
+	}
+
+	private void groupByPips() {
+		int[] points = new int[BearoffIndex.POINTS];
+		int[] pips = layoutPips = new int[positions];
+		int[] perPips = new int[maxPieces * BearoffIndex.POINTS + 1];
+		for (int index = 0; index < positions; index++) {
+			BearoffIndex.layoutOf(index, points);
+			for (int i = 0; i < points.length; i++) {
+				pips[index] += points[i] * (i + 1);
+			}
+			perPips[pips[index]]++;
+		}
+		layoutsByPips = new int[perPips.length][];
+		for (int p = 0; p < perPips.length; p++) {
+			layoutsByPips[p] = new int[perPips[p]];
+			perPips[p] = 0;
+		}
+		for (int index = 0; index < positions; index++) {
+			layoutsByPips[pips[index]][perPips[pips[index]]++] = index;
+		}
+	}
+
+	/**
+	 * Solves the player to move with layout own against every opponent
+	 * layout that makes the given pips together, opponent not borne off
+	 */
+	private void solve(int own, int totalPips) {
+		for (int opponent : layoutsByPips[totalPips - layoutPips[own]]) {
+			if (opponent == 0) {
+				continue;
+			}
+			double chance = 0;
+			for (int r = 0; r < Dice.DISTINCT_ROLLS.length; r++) {
+				double best = 0;
+				for (int next : nextLayouts[own][r]) {
+					best = Math.max(best,
+							1 - chances[opponent * positions + next]);
+				}
+				chance += Dice.getChance(Dice.DISTINCT_ROLLS[r]) * best;
+			}
+			chances[own * positions + opponent] = chance;
+		}
+	}
+}
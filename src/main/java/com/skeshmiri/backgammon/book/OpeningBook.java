@@ -0,0 +1,218 @@
+package com.skeshmiri.backgammon.book;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Dice;
+import com.skeshmiri.backgammon.game.Play;
+import com.skeshmiri.backgammon.game.PlayBook;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Book of the best plays for early boards, made offline by
+ *          OpeningBookGenerator. An entry is found by the Zobrist key of the
+ *          board with the player to move set and the index of the roll in
+ *          Dice.DISTINCT_ROLLS, and gives the Zobrist key of the board after
+ *          the best play, so the play can be picked from findValidPlays()
+ *
+ *          File: magic and number of entries as ints, then for every entry
+ *          the board key as a long, the roll as a byte, the key after the
+ *          play as a long and its rollout equity as a float, sorted by board
+ *          key and roll. The whole file is read into arrays and looked up by
+ *          binary search, nothing is changed after loading so one book can be
+ *          shared by all threads. SelfPlay passes getDefault() to its games and
+ *          the GUI hint uses it
+ *
+ */
+public class OpeningBook implements PlayBook {
+	public static final int MAGIC = 0x42474F42;
+
+	/**
+	 * system property with the file getDefault() reads, if it is not set
+	 * DEFAULT_FILE in the working directory is used
+	 */
+	public static final String FILE_PROPERTY = "backgammon.book";
+	public static final String DEFAULT_FILE = "opening.book";
+
+	private static OpeningBook defaultBook;
+	private static boolean defaultLoaded;
+
+	private long[] boardKeys;
+	private byte[] rolls;
+	private long[] playKeys;
+	private float[] equities;
+
+	/**
+	 * @param boardKeys
+	 *            board keys sorted, same keys sorted by roll
+	 * @param rolls
+	 *            index of the roll of each entry
+	 * @param playKeys
+	 *            key of the board after the best play of each entry
+	 * @param equities
+	 *            equity of the best play of each entry
+	 */
+	OpeningBook(long[] boardKeys, byte[] rolls, long[] playKeys,
+			float[] equities) {
+		this.boardKeys = boardKeys;
+		this.rolls = rolls;
+		this.playKeys = playKeys;
+		this.equities = equities;
+	}
+
+	/**
+	 * Reads a whole book into memory
+	 *
+	 * @param file
+	 *            file written by save
+	 * @return book with the entries of the file
+	 * @throws IOException
+	 *             if the file can't be read or is not a book
+	 */
+	public static OpeningBook load(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("not an opening book: " + file);
+			}
+			int entries = in.readInt();
+			long[] boardKeys = new long[entries];
+			byte[] rolls = new byte[entries];
+			long[] playKeys = new long[entries];
+			float[] equities = new float[entries];
+			for (int i = 0; i < entries; i++) {
+				boardKeys[i] = in.readLong();
+				rolls[i] = in.readByte();
+				playKeys[i] = in.readLong();
+				equities[i] = in.readFloat();
+			}
+			return new OpeningBook(boardKeys, rolls, playKeys, equities);
+		}
+	}
+
+	/**
+	 * @param file
+	 *            file to write the book to, replaced if it is there
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void save(Path file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(boardKeys.length);
+			for (int i = 0; i < boardKeys.length; i++) {
+				out.writeLong(boardKeys[i]);
+				out.writeByte(rolls[i]);
+				out.writeLong(playKeys[i]);
+				out.writeFloat(equities[i]);
+			}
+		}
+	}
+
+	/**
+	 * Book from the file in FILE_PROPERTY or DEFAULT_FILE, read on the first
+	 * call
+	 *
+	 * @return book or null if there is no file
+	 */
+	public static synchronized OpeningBook getDefault() {
+		if (!defaultLoaded) {
+			defaultLoaded = true;
+			Path file = Paths.get(System.getProperty(FILE_PROPERTY,
+					DEFAULT_FILE));
+			if (Files.isRegularFile(file)) {
+				try {
+					defaultBook = load(file);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+		return defaultBook;
+	}
+
+	/**
+	 * @return entries in the book
+	 */
+	public int size() {
+		return boardKeys.length;
+	}
+
+	/**
+	 * @param board
+	 *            board before the play, with the player to move set
+	 * @param roll
+	 *            dices thrown
+	 * @param plays
+	 *            plays of the roll, as from findValidPlays()
+	 * @return best play from the book, null if the board and roll are not in
+	 *         the book
+	 */
+	@Override
+	public Play getPlay(Board board, int[] roll, List<Play> plays) {
+		int entry = find(board.getZobristKey(), Dice.getRollIndex(roll));
+		if (entry < 0) {
+			return null;
+		}
+		for (Play play : plays) {
+			if (play.getZobristKey() == playKeys[entry]) {
+				return play;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param board
+	 *            board before the play, with the player to move set
+	 * @param roll
+	 *            dices thrown
+	 * @return rollout equity of the best play, NaN if not in the book
+	 */
+	public float getEquity(Board board, int[] roll) {
+		int entry = find(board.getZobristKey(), Dice.getRollIndex(roll));
+		return entry < 0 ? Float.NaN : equities[entry];
+	}
+
+	/**
+	 * @return index of the entry, -1 if there is none
+	 */
+	private int find(long boardKey, int roll) {
+		int low = 0;
+		int high = boardKeys.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int order = compare(boardKeys[middle], rolls[middle], boardKey,
+					roll);
+			if (order < 0) {
+				low = middle + 1;
+			} else if (order > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Order of the entries in the file
+	 */
+	static int compare(long boardKey, int roll, long otherKey, int otherRoll) {
+		int order = Long.compare(boardKey, otherKey);
+		return order != 0 ? order : Integer.compare(roll, otherRoll);
+	}
+}
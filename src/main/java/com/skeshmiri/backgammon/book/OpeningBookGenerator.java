@@ -0,0 +1,153 @@
+package com.skeshmiri.backgammon.book;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.skeshmiri.backgammon.engine.Evaluator;
+import com.skeshmiri.backgammon.engine.PlayFilter;
+import com.skeshmiri.backgammon.engine.PlayRanker;
+import com.skeshmiri.backgammon.engine.Rollout;
+import com.skeshmiri.backgammon.engine.RolloutResult;
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Dice;
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Builds an OpeningBook by rolling out the plays of early boards.
+ *          The first ply is every roll of either player from the starting
+ *          board, doubles included as the GUI lets the starting player throw
+ *          both dices. The second ply is every roll of the opponent after the
+ *          best first play
+ *
+ *          With an evaluator and a PlayFilter only the plays the filter keeps
+ *          are rolled out. Boards with a single play are left out of the book
+ *
+ */
+public class OpeningBookGenerator {
+	private Rollout rollout;
+	private int games;
+	private Evaluator evaluator;
+	private PlayFilter filter;
+
+	private List<long[]> entries = new ArrayList<long[]>();
+	private List<Float> equities = new ArrayList<Float>();
+
+	/**
+	 * @param rollout
+	 *            rollout the plays are rolled out with, best without an
+	 *            opening book of its own
+	 * @param games
+	 *            games rolled out for each play
+	 */
+	public OpeningBookGenerator(Rollout rollout, int games) {
+		this.rollout = rollout;
+		this.games = games;
+	}
+
+	/**
+	 * @param evaluator
+	 *            ranks plays before the rollout
+	 * @param filter
+	 *            keeps the plays that are rolled out, null to roll out all
+	 */
+	public void setFilter(Evaluator evaluator, PlayFilter filter) {
+		this.evaluator = evaluator;
+		this.filter = filter;
+	}
+
+	/**
+	 * @param plies
+	 *            1 for the first play of a game, 2 for the answers to it too
+	 * @return book with the best play of every board and roll
+	 */
+	public OpeningBook generate(int plies) {
+		entries.clear();
+		equities.clear();
+		for (boolean isWhite : new boolean[] { true, false }) {
+			for (int[] roll : Dice.DISTINCT_ROLLS) {
+				Board board = new Board();
+				Play best = addEntry(board, roll, isWhite);
+				if (plies < 2 || best == null) {
+					continue;
+				}
+				Board reply = new Board();
+				reply.setCheckers(best.getPosition());
+				for (int[] replyRoll : Dice.DISTINCT_ROLLS) {
+					addEntry(reply, replyRoll, !isWhite);
+				}
+			}
+		}
+
+		// sorted as OpeningBook looks them up
+		long[][] sorted = entries.toArray(new long[0][]);
+		Integer[] order = new Integer[sorted.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> OpeningBook.compare(sorted[a][0],
+				(int) sorted[a][1], sorted[b][0], (int) sorted[b][1]));
+		long[] boardKeys = new long[order.length];
+		byte[] rolls = new byte[order.length];
+		long[] playKeys = new long[order.length];
+		float[] bookEquities = new float[order.length];
+		for (int i = 0; i < order.length; i++) {
+			long[] entry = sorted[order[i]];
+			boardKeys[i] = entry[0];
+			rolls[i] = (byte) entry[1];
+			playKeys[i] = entry[2];
+			bookEquities[i] = equities.get(order[i]);
+		}
+		return new OpeningBook(boardKeys, rolls, playKeys, bookEquities);
+	}
+
+	/**
+	 * Builds the book and writes it to a file
+	 *
+	 * @param file
+	 *            file to write, replaced if it is there
+	 * @param plies
+	 *            1 or 2, see generate
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void write(Path file, int plies) throws IOException {
+		generate(plies).save(file);
+	}
+
+	/**
+	 * Rolls out the plays of one board and roll and adds the best one
+	 *
+	 * @return best play, null if the roll has only one play
+	 */
+	private Play addEntry(Board board, int[] roll, boolean isWhite) {
+		board.setDices(roll);
+		board.setPlayers(isWhite);
+		ArrayList<Play> plays = board.findValidPlays();
+		if (plays.size() < 2) {
+			return null;
+		}
+		List<Play> candidates = plays;
+		if (evaluator != null && filter != null) {
+			candidates = filter.filter(new PlayRanker(evaluator).rank(board,
+					plays));
+		}
+
+		RolloutResult best = null;
+		for (RolloutResult result : rollout.rollout(board, candidates, games)) {
+			if (best == null || result.getEquity() > best.getEquity()) {
+				best = result;
+			}
+		}
+		entries.add(new long[] { board.getZobristKey(),
+				Dice.getRollIndex(roll), best.getPlay().getZobristKey() });
+		equities.add((float) best.getEquity());
+		return best.getPlay();
+	}
+}
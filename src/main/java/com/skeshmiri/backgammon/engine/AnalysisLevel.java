@@ -0,0 +1,65 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.MoveChooser;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          How hard to think about a play. QUICK ranks all plays with one
+ *          evaluation each, the other levels search two ply on the plays
+ *          left by their filter, DEEP keeping more of them
+ *
+ */
+public enum AnalysisLevel {
+	QUICK(1, null), NORMAL(2, new PlayFilter(4, 0.08f)), DEEP(2,
+			new PlayFilter(10, 0.24f));
+
+	private int plies;
+	private PlayFilter filter;
+
+	private AnalysisLevel(int plies, PlayFilter filter) {
+		this.plies = plies;
+		this.filter = filter;
+	}
+
+	public int getPlies() {
+		return plies;
+	}
+
+	/**
+	 * @return filter of plays to search deeper, null for one ply
+	 */
+	public PlayFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * @param evaluator
+	 *            thread safe evaluator
+	 * @return chooser playing at this level
+	 */
+	public MoveChooser createChooser(Evaluator evaluator) {
+		return createChooser(evaluator, filter);
+	}
+
+	/**
+	 * Same as createChooser(Evaluator) with other filter settings
+	 *
+	 * @param evaluator
+	 *            thread safe evaluator
+	 * @param filter
+	 *            filter used instead of the one of the level, null to search
+	 *            every play
+	 * @return chooser playing at this level
+	 */
+	public MoveChooser createChooser(Evaluator evaluator, PlayFilter filter) {
+		if (plies == 1) {
+			return new EvaluatorMoveChooser(evaluator);
+		}
+		TwoPlySearch search = new TwoPlySearch(evaluator);
+		search.setFilter(filter);
+		return search;
+	}
+}
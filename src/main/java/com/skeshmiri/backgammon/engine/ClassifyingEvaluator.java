@@ -0,0 +1,84 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+import com.skeshmiri.backgammon.game.PositionClass;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Sends boards still in contact to one evaluator and races to
+ *          another, usually a cheap RaceEvaluator. A batch is split in two
+ *          batches, so each evaluator still gets one call. Thread safe if
+ *          both evaluators are
+ *
+ *          PlayRanker sees through it: a board that is a race stays one, so
+ *          all plays from it go to the race evaluator, and from a board in
+ *          contact the contact evaluator keeps its incremental path and only
+ *          the plays breaking contact go to the race evaluator
+ *
+ */
+public class ClassifyingEvaluator implements Evaluator {
+	private Evaluator contact;
+	private Evaluator race;
+
+	/**
+	 * @param contact
+	 *            evaluator for boards in contact
+	 * @param race
+	 *            evaluator for races and bear offs
+	 */
+	public ClassifyingEvaluator(Evaluator contact, Evaluator race) {
+		this.contact = contact;
+		this.race = race;
+	}
+
+	public Evaluator getContact() {
+		return contact;
+	}
+
+	public Evaluator getRace() {
+		return race;
+	}
+
+	@Override
+	public void evaluate(byte[][] positions, int count, Color onRoll,
+			float[] outputs) {
+		byte[][] contactPositions = new byte[count][];
+		byte[][] racePositions = new byte[count][];
+		int[] order = new int[count];
+		int contacts = 0;
+		int races = 0;
+		for (int b = 0; b < count; b++) {
+			if (Board.getPositionClass(positions[b]) == PositionClass.CONTACT) {
+				order[b] = contacts;
+				contactPositions[contacts++] = positions[b];
+			} else {
+				// races are kept as -1 - their index
+				order[b] = -1 - races;
+				racePositions[races++] = positions[b];
+			}
+		}
+
+		float[] contactOutputs = new float[contacts * OUTPUTS];
+		float[] raceOutputs = new float[races * OUTPUTS];
+		if (contacts > 0) {
+			contact.evaluate(contactPositions, contacts, onRoll,
+					contactOutputs);
+		}
+		if (races > 0) {
+			race.evaluate(racePositions, races, onRoll, raceOutputs);
+		}
+		for (int b = 0; b < count; b++) {
+			if (order[b] >= 0) {
+				System.arraycopy(contactOutputs, order[b] * OUTPUTS, outputs, b
+						* OUTPUTS, OUTPUTS);
+			} else {
+				System.arraycopy(raceOutputs, (-1 - order[b]) * OUTPUTS,
+						outputs, b * OUTPUTS, OUTPUTS);
+			}
+		}
+	}
+}
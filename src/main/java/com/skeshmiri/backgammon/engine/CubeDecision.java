@@ -0,0 +1,152 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.Color;
+import com.skeshmiri.backgammon.game.Cube;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Double and take decision of the player on roll from the chances of
+ *          an Evaluator. Each choice is valued as if the cube was dead after
+ *          it: no double keeps the cube where it is, double and take plays on
+ *          at twice the value, double and pass wins the cube value at once
+ *
+ *          For money the values are points per unit of stake, for a match
+ *          they are chances of winning the match from a MatchEquityTable,
+ *          one lookup for every way the game can end. Once a player needs 1
+ *          point the scores after the game are after the Crawford game
+ *
+ *          When the cube does not allow the player to double, in the Crawford
+ *          game, owned by the opponent or at Cube.MAX_VALUE, isDouble() is
+ *          always false
+ *
+ */
+public class CubeDecision {
+	private double noDouble;
+	private double doubleTake;
+	private double doublePass;
+	private boolean mayDouble;
+
+	private CubeDecision(double noDouble, double doubleTake,
+			double doublePass, boolean mayDouble) {
+		this.noDouble = noDouble;
+		this.doubleTake = doubleTake;
+		this.doublePass = doublePass;
+		this.mayDouble = mayDouble;
+	}
+
+	/**
+	 * @param chances
+	 *            Evaluator outputs for the player on roll
+	 * @param cube
+	 *            cube before the double
+	 * @param onRoll
+	 *            player on roll, white or black
+	 * @return decision of a money game
+	 */
+	public static CubeDecision forMoney(float[] chances, Cube cube,
+			Color onRoll) {
+		double equity = Evaluator.getEquity(chances, 0);
+		int value = cube.getValue();
+		return new CubeDecision(value * equity, 2 * value * equity, value,
+				cube.mayDouble(onRoll));
+	}
+
+	/**
+	 * @param chances
+	 *            Evaluator outputs for the player on roll
+	 * @param cube
+	 *            cube before the double
+	 * @param onRoll
+	 *            player on roll, white or black
+	 * @param table
+	 *            chances of winning the match by the score
+	 * @param ownAway
+	 *            points the player on roll still needs
+	 * @param opponentAway
+	 *            points the opponent still needs
+	 * @return decision of a match game
+	 */
+	public static CubeDecision forMatch(float[] chances, Cube cube,
+			Color onRoll, MatchEquityTable table, int ownAway,
+			int opponentAway) {
+		// the Crawford game and every later game leave a post Crawford score
+		boolean postCrawford = ownAway == 1 || opponentAway == 1;
+		int value = cube.getValue();
+		return new CubeDecision(getMatchEquity(chances, table, ownAway,
+				opponentAway, postCrawford, value), getMatchEquity(chances,
+				table, ownAway, opponentAway, postCrawford, 2 * value),
+				table.getEquity(ownAway - value, opponentAway, postCrawford),
+				cube.mayDouble(onRoll));
+	}
+
+	/**
+	 * @return chance of winning the match if the game is played out with the
+	 *         cube at value
+	 */
+	private static double getMatchEquity(float[] chances,
+			MatchEquityTable table, int own, int opponent,
+			boolean postCrawford, int value) {
+		double win = chances[Evaluator.WIN];
+		double winGammon = chances[Evaluator.WIN_GAMMON];
+		double winBackgammon = chances[Evaluator.WIN_BACKGAMMON];
+		double loseGammon = chances[Evaluator.LOSE_GAMMON];
+		double loseBackgammon = chances[Evaluator.LOSE_BACKGAMMON];
+		return (win - winGammon)
+				* table.getEquity(own - value, opponent, postCrawford)
+				+ (winGammon - winBackgammon)
+				* table.getEquity(own - 2 * value, opponent, postCrawford)
+				+ winBackgammon
+				* table.getEquity(own - 3 * value, opponent, postCrawford)
+				+ (1 - win - loseGammon)
+				* table.getEquity(own, opponent - value, postCrawford)
+				+ (loseGammon - loseBackgammon)
+				* table.getEquity(own, opponent - 2 * value, postCrawford)
+				+ loseBackgammon
+				* table.getEquity(own, opponent - 3 * value, postCrawford);
+	}
+
+	public double getNoDouble() {
+		return noDouble;
+	}
+
+	public double getDoubleTake() {
+		return doubleTake;
+	}
+
+	public double getDoublePass() {
+		return doublePass;
+	}
+
+	/**
+	 * @return true if the cube allowed the player to double
+	 */
+	public boolean mayDouble() {
+		return mayDouble;
+	}
+
+	/**
+	 * @return true if the player may double and doubling is worth more than
+	 *         keeping the cube, whatever the opponent answers
+	 */
+	public boolean isDouble() {
+		return mayDouble && Math.min(doubleTake, doublePass) > noDouble;
+	}
+
+	/**
+	 * @return true if the opponent should take a double
+	 */
+	public boolean isTake() {
+		return doubleTake <= doublePass;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("no double %.3f, double/take %.3f, "
+				+ "double/pass %.3f: %s, %s", noDouble, doubleTake,
+				doublePass, isDouble() ? "double" : "no double",
+				isTake() ? "take" : "pass");
+	}
+}
@@ -0,0 +1,69 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.Color;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Scores boards for the player who throws next. Boards are given in
+ *          batches, so one call can score every play of a turn
+ *
+ *          Each board gets OUTPUTS chances: winning, winning a gammon,
+ *          winning a backgammon, losing a gammon and losing a backgammon.
+ *          Gammon chances include backgammons
+ *
+ */
+public interface Evaluator {
+	int WIN = 0, WIN_GAMMON = 1, WIN_BACKGAMMON = 2, LOSE_GAMMON = 3,
+			LOSE_BACKGAMMON = 4, OUTPUTS = 5;
+
+	/**
+	 * @param positions
+	 *            packed boards as from Board.getCheckers(), not changed
+	 * @param count
+	 *            boards to score, from the start of positions
+	 * @param onRoll
+	 *            player who throws next on all boards
+	 * @param outputs
+	 *            filled with OUTPUTS chances per board for onRoll, at least
+	 *            count * OUTPUTS long
+	 */
+	void evaluate(byte[][] positions, int count, Color onRoll, float[] outputs);
+
+	/**
+	 * Cubeless equity, points won per game on average
+	 * 
+	 * @param outputs
+	 *            chances as filled in by evaluate
+	 * @param offset
+	 *            where the chances of the board start
+	 * @return equity from -3 to 3 for the player the chances are for
+	 */
+	static float getEquity(float[] outputs, int offset) {
+		return 2 * outputs[offset + WIN] - 1 + outputs[offset + WIN_GAMMON]
+				- outputs[offset + LOSE_GAMMON]
+				+ outputs[offset + WIN_BACKGAMMON]
+				- outputs[offset + LOSE_BACKGAMMON];
+	}
+
+	/**
+	 * Turns chances of one player into the chances of the other
+	 * 
+	 * @param outputs
+	 *            chances, changed in place
+	 * @param offset
+	 *            where the chances of the board start
+	 */
+	static void invert(float[] outputs, int offset) {
+		float win = outputs[offset + WIN];
+		float winGammon = outputs[offset + WIN_GAMMON];
+		float winBackgammon = outputs[offset + WIN_BACKGAMMON];
+		outputs[offset + WIN] = 1 - win;
+		outputs[offset + WIN_GAMMON] = outputs[offset + LOSE_GAMMON];
+		outputs[offset + WIN_BACKGAMMON] = outputs[offset + LOSE_BACKGAMMON];
+		outputs[offset + LOSE_GAMMON] = winGammon;
+		outputs[offset + LOSE_BACKGAMMON] = winBackgammon;
+	}
+}
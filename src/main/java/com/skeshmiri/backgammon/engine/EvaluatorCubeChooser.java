@@ -0,0 +1,79 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+import com.skeshmiri.backgammon.game.Cube;
+import com.skeshmiri.backgammon.game.CubeChooser;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Doubles and takes as CubeDecision says for the chances of an
+ *          Evaluator, for money or, with setMatch, at a match score
+ *
+ *          Buffers are kept between calls, not thread safe, every thread
+ *          should use its own chooser
+ *
+ */
+public class EvaluatorCubeChooser implements CubeChooser {
+	private Evaluator evaluator;
+	private MatchEquityTable table;
+	private int whiteAway;
+	private int blackAway;
+	private byte[][] positions = new byte[1][];
+	private float[] chances = new float[Evaluator.OUTPUTS];
+
+	/**
+	 * Chooser for money games
+	 *
+	 * @param evaluator
+	 *            scores the board before the throw
+	 */
+	public EvaluatorCubeChooser(Evaluator evaluator) {
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * @param table
+	 *            chances of winning the match, null for money games
+	 * @param whiteAway
+	 *            points white still needs
+	 * @param blackAway
+	 *            points black still needs
+	 */
+	public void setMatch(MatchEquityTable table, int whiteAway, int blackAway) {
+		this.table = table;
+		this.whiteAway = whiteAway;
+		this.blackAway = blackAway;
+	}
+
+	@Override
+	public boolean offerDouble(Board board, Color player, Cube cube) {
+		return decide(board, player, cube).isDouble();
+	}
+
+	@Override
+	public boolean acceptDouble(Board board, Color player, Cube cube) {
+		return decide(board, player == Color.WHITE ? Color.BLACK : Color.WHITE,
+				cube).isTake();
+	}
+
+	/**
+	 * @param onRoll
+	 *            player who doubles
+	 * @return decision of the doubling player
+	 */
+	private CubeDecision decide(Board board, Color onRoll, Cube cube) {
+		positions[0] = board.getCheckers();
+		evaluator.evaluate(positions, 1, onRoll, chances);
+		if (table == null) {
+			return CubeDecision.forMoney(chances, cube, onRoll);
+		}
+		boolean isWhite = onRoll == Color.WHITE;
+		return CubeDecision.forMatch(chances, cube, onRoll, table,
+				isWhite ? whiteAway : blackAway, isWhite ? blackAway
+						: whiteAway);
+	}
+}
@@ -0,0 +1,29 @@
+package com.skeshmiri.backgammon.engine;
+
+import java.util.ArrayList;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.MoveChooser;
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Picks the play an Evaluator scores best, one look ahead. Keeps a
+ *          PlayRanker, so not thread safe
+ *
+ */
+public class EvaluatorMoveChooser implements MoveChooser {
+	private PlayRanker ranker;
+
+	public EvaluatorMoveChooser(Evaluator evaluator) {
+		ranker = new PlayRanker(evaluator);
+	}
+
+	@Override
+	public Play choosePlay(Board board, ArrayList<Play> plays) {
+		return ranker.rank(board, plays)[0].getPlay();
+	}
+}
@@ -0,0 +1,67 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.Color;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Evaluator that works from a state made from the fields of a board,
+ *          e.g. the hidden sums of a net. A play only changes a few fields,
+ *          so the state of the board after a play can be made from the state
+ *          before it by updating those fields instead of from scratch
+ *
+ */
+public interface IncrementalEvaluator extends Evaluator {
+
+	/**
+	 * @return floats in the state of one board
+	 */
+	int getStateSize();
+
+	/**
+	 * Makes the state of a board from scratch
+	 *
+	 * @param position
+	 *            packed board, not changed
+	 * @param onRoll
+	 *            player who throws next
+	 * @param states
+	 *            filled with the state
+	 * @param offset
+	 *            where to put the state in states
+	 */
+	void setState(byte[] position, Color onRoll, float[] states, int offset);
+
+	/**
+	 * Changes a state for different pieces on one field
+	 *
+	 * @param states
+	 *            states, changed in place
+	 * @param offset
+	 *            where the state starts
+	 * @param field
+	 *            field 0-27
+	 * @param before
+	 *            pieces on the field the state was made with, white positive
+	 *            and black negative
+	 * @param after
+	 *            pieces on the field now
+	 */
+	void updateField(float[] states, int offset, int field, int before,
+			int after);
+
+	/**
+	 * Same as evaluate for boards given as states
+	 *
+	 * @param states
+	 *            states of the boards one after the other
+	 * @param count
+	 *            boards to score
+	 * @param outputs
+	 *            filled with OUTPUTS chances per board, at least count *
+	 *            OUTPUTS long
+	 */
+	void evaluateStates(float[] states, int count, float[] outputs);
+}
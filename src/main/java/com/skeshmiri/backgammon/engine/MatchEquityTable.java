@@ -0,0 +1,238 @@
+package com.skeshmiri.backgammon.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Chances of winning a match by the points each player still needs,
+ *          kept in a primitive 2-D array so a lookup is two array reads.
+ *          Scores where one player needs 1 point are before the Crawford
+ *          game, a separate row holds the scores after it, when the trailing
+ *          player doubles at once
+ *
+ *          A table can be read from a text file: the length N, N rows of N
+ *          chances for needing 1-N against needing 1-N, then N chances of the
+ *          trailer needing 1-N after the Crawford game. Lines starting with #
+ *          are left out. Without a file a table is worked out from an even
+ *          game with a fixed gammon rate and no cube before the Crawford
+ *          game, a rough stand in for a published table
+ *
+ *          Nothing is changed after loading, one table can be shared by all
+ *          threads
+ *
+ */
+public class MatchEquityTable {
+	/**
+	 * system property with the file getDefault() reads, if it is not set
+	 * DEFAULT_FILE in the working directory is used
+	 */
+	public static final String FILE_PROPERTY = "backgammon.met";
+	public static final String DEFAULT_FILE = "met.txt";
+
+	/**
+	 * length and gammon rate of the table getDefault() works out when there
+	 * is no file
+	 */
+	public static final int DEFAULT_LENGTH = 25;
+	public static final double DEFAULT_GAMMON_RATE = 0.26;
+
+	private static MatchEquityTable defaultTable;
+
+	private int length;
+	private double[][] equities;
+	private double[] postCrawford;
+
+	/**
+	 * @param equities
+	 *            length + 1 rows of length + 1 chances, [own away][opponent
+	 *            away], row and column 0 are not used
+	 * @param postCrawford
+	 *            length + 1 chances of the trailer by points needed after the
+	 *            Crawford game, 0 is not used
+	 */
+	MatchEquityTable(double[][] equities, double[] postCrawford) {
+		length = equities.length - 1;
+		this.equities = equities;
+		this.postCrawford = postCrawford;
+	}
+
+	/**
+	 * Works out a table from an even game without the cube, except the
+	 * trailer doubling at once after the Crawford game
+	 *
+	 * @param length
+	 *            most points a player can need
+	 * @param gammonRate
+	 *            share of games won with a gammon
+	 * @return new table
+	 */
+	public static MatchEquityTable create(int length, double gammonRate) {
+		double single = 0.5 * (1 - gammonRate);
+		double gammon = 0.5 * gammonRate;
+
+		// trailer wins a doubled game with 2 or 4 points, loses the match else
+		double[] postCrawford = new double[length + 1];
+		for (int away = 1; away <= length; away++) {
+			postCrawford[away] = single * trailer(postCrawford, away - 2)
+					+ gammon * trailer(postCrawford, away - 4);
+		}
+
+		double[][] equities = new double[length + 1][length + 1];
+		for (int own = 1; own <= length; own++) {
+			for (int opponent = 1; opponent <= length; opponent++) {
+				if (own == 1 && opponent == 1) {
+					equities[own][opponent] = 0.5;
+				} else if (own == 1) {
+					// Crawford game, losing it leaves the opponent trailing
+					equities[own][opponent] = 0.5 + single
+							* (1 - trailer(postCrawford, opponent - 1))
+							+ gammon * (1 - trailer(postCrawford, opponent - 2));
+				} else if (opponent == 1) {
+					equities[own][opponent] = 1 - equities[opponent][own];
+				} else {
+					equities[own][opponent] = single
+							* lookup(equities, own - 1, opponent) + gammon
+							* lookup(equities, own - 2, opponent) + single
+							* lookup(equities, own, opponent - 1) + gammon
+							* lookup(equities, own, opponent - 2);
+				}
+			}
+		}
+		return new MatchEquityTable(equities, postCrawford);
+	}
+
+	/**
+	 * Reads a table from a text file, see the class comment for the format
+	 *
+	 * @param file
+	 *            table file
+	 * @return table of the file
+	 * @throws IOException
+	 *             if the file can't be read, has the wrong amount of chances
+	 *             or a chance out of 0-1
+	 */
+	public static MatchEquityTable load(Path file) throws IOException {
+		List<Double> numbers = new ArrayList<Double>();
+		for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			for (String number : line.split("[\\s,]+")) {
+				numbers.add(Double.parseDouble(number));
+			}
+		}
+		int length = numbers.isEmpty() ? 0 : numbers.get(0).intValue();
+		if (length < 1 || numbers.size() != 1 + length * length + length) {
+			throw new IOException("not a match equity table: " + file);
+		}
+		double[][] equities = new double[length + 1][length + 1];
+		double[] postCrawford = new double[length + 1];
+		int next = 1;
+		for (int own = 1; own <= length; own++) {
+			for (int opponent = 1; opponent <= length; opponent++) {
+				equities[own][opponent] = numbers.get(next++);
+			}
+		}
+		for (int away = 1; away <= length; away++) {
+			postCrawford[away] = numbers.get(next++);
+		}
+		for (int i = 1; i < numbers.size(); i++) {
+			if (!(numbers.get(i) >= 0 && numbers.get(i) <= 1)) {
+				throw new IOException("chance " + numbers.get(i)
+						+ " out of 0-1 in " + file);
+			}
+		}
+		return new MatchEquityTable(equities, postCrawford);
+	}
+
+	/**
+	 * Table from the file in FILE_PROPERTY or DEFAULT_FILE, read on the first
+	 * call. Without a file one is worked out with DEFAULT_LENGTH and
+	 * DEFAULT_GAMMON_RATE
+	 *
+	 * @return table, never null
+	 */
+	public static synchronized MatchEquityTable getDefault() {
+		if (defaultTable == null) {
+			Path file = Paths.get(System.getProperty(FILE_PROPERTY,
+					DEFAULT_FILE));
+			if (Files.isRegularFile(file)) {
+				try {
+					defaultTable = load(file);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			} else {
+				defaultTable = create(DEFAULT_LENGTH, DEFAULT_GAMMON_RATE);
+			}
+		}
+		return defaultTable;
+	}
+
+	/**
+	 * @return most points a player can need
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @param ownAway
+	 *            points the player still needs, 0 or less for a won match
+	 * @param opponentAway
+	 *            points the opponent still needs, 0 or less for a lost match
+	 * @param postCrawford
+	 *            true once the Crawford game has been played
+	 * @return chance the player wins the match
+	 * @throws IllegalArgumentException
+	 *             if a player needs more than getLength() points
+	 */
+	public double getEquity(int ownAway, int opponentAway, boolean postCrawford) {
+		if (ownAway <= 0) {
+			return 1;
+		}
+		if (opponentAway <= 0) {
+			return 0;
+		}
+		if (ownAway > length || opponentAway > length) {
+			throw new IllegalArgumentException("score " + ownAway + "-"
+					+ opponentAway + " away is beyond the table of " + length);
+		}
+		if (postCrawford && ownAway == 1 && opponentAway > 1) {
+			return 1 - this.postCrawford[opponentAway];
+		}
+		if (postCrawford && opponentAway == 1 && ownAway > 1) {
+			return this.postCrawford[ownAway];
+		}
+		return equities[ownAway][opponentAway];
+	}
+
+	/**
+	 * @return chance the player wins before the Crawford game
+	 */
+	public double getEquity(int ownAway, int opponentAway) {
+		return getEquity(ownAway, opponentAway, false);
+	}
+
+	private static double trailer(double[] postCrawford, int away) {
+		return away <= 0 ? 1 : postCrawford[away];
+	}
+
+	private static double lookup(double[][] equities, int own, int opponent) {
+		if (own <= 0) {
+			return 1;
+		}
+		return opponent <= 0 ? 0 : equities[own][opponent];
+	}
+}
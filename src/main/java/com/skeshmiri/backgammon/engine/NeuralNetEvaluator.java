@@ -0,0 +1,348 @@
+package com.skeshmiri.backgammon.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Feed forward neural net with one hidden layer, in plain Java
+ *
+ *          Inputs are the classic 198 of TD-Gammon: for every point 1-24 and
+ *          color four inputs for the pieces there (1 or more, 2 or more, 3 or
+ *          more and half of the pieces over 3), pieces on the bar / 2 and
+ *          borne off pieces / 15 for each color and two inputs for the player
+ *          to move. Hidden and output units are sigmoids, outputs are the
+ *          Evaluator chances for the player to move
+ *
+ *          Weights are kept in flat float arrays. Hidden weights are stored by
+ *          input, so the weights of one input to all hidden units are next to
+ *          each other. Most inputs are 0, so hidden sums are made by adding up
+ *          the weights of the inputs that are set, field by field, instead of
+ *          multiplying a whole input vector. The hidden sums are the state
+ *          of an IncrementalEvaluator, so after a play only the weights of the
+ *          fields it changed are taken away and added again
+ *
+ *          Weights are never changed after loading, one net can be used by
+ *          many threads
+ *
+ */
+public class NeuralNetEvaluator implements IncrementalEvaluator {
+	public static final int INPUTS = 198;
+	public static final int MAGIC = 0x42474E31;
+
+	/**
+	 * system property with the weights file getDefault() loads, if it is not
+	 * set DEFAULT_FILE in the working directory is used
+	 */
+	public static final String FILE_PROPERTY = "backgammon.weights";
+	public static final String DEFAULT_FILE = "weights.bgn";
+
+	private static final int UNITS_PER_POINT = 4;
+	private static final int BAR_INPUT = 24 * 2 * UNITS_PER_POINT;
+	private static final int BEAROFF_INPUT = BAR_INPUT + 2;
+	private static final int TO_MOVE_INPUT = BEAROFF_INPUT + 2;
+
+	private static NeuralNetEvaluator defaultNet;
+	private static boolean defaultLoaded;
+
+	private int hidden;
+	private float[] hiddenWeights;
+	private float[] hiddenBias;
+	private float[] outputWeights;
+	private float[] outputBias;
+
+	/**
+	 * hidden sums of evaluate, one array per thread so a batch creates
+	 * nothing
+	 */
+	private final ThreadLocal<float[]> scratch = ThreadLocal
+			.withInitial(() -> new float[hidden]);
+
+	/**
+	 * @param hidden
+	 *            amount of hidden units
+	 * @param hiddenWeights
+	 *            INPUTS * hidden weights, weight of input i to hidden unit h
+	 *            at i * hidden + h
+	 * @param hiddenBias
+	 *            biases of the hidden units
+	 * @param outputWeights
+	 *            hidden * OUTPUTS weights, weight of hidden unit h to output o
+	 *            at h * OUTPUTS + o
+	 * @param outputBias
+	 *            OUTPUTS biases of the outputs
+	 */
+	public NeuralNetEvaluator(int hidden, float[] hiddenWeights,
+			float[] hiddenBias, float[] outputWeights, float[] outputBias) {
+		if (hiddenWeights.length != INPUTS * hidden
+				|| hiddenBias.length != hidden
+				|| outputWeights.length != hidden * OUTPUTS
+				|| outputBias.length != OUTPUTS) {
+			throw new IllegalArgumentException("weights don't fit a net of "
+					+ hidden + " hidden units");
+		}
+		this.hidden = hidden;
+		this.hiddenWeights = hiddenWeights;
+		this.hiddenBias = hiddenBias;
+		this.outputWeights = outputWeights;
+		this.outputBias = outputBias;
+	}
+
+	/**
+	 * Net with small random weights, e.g. to start training from
+	 *
+	 * @param hidden
+	 *            amount of hidden units
+	 * @param seed
+	 *            seed of the weights
+	 * @return new net
+	 */
+	public static NeuralNetEvaluator createRandom(int hidden, long seed) {
+		Random rn = new Random(seed);
+		float[][] weights = { new float[INPUTS * hidden], new float[hidden],
+				new float[hidden * OUTPUTS], new float[OUTPUTS] };
+		for (float[] layer : weights) {
+			for (int i = 0; i < layer.length; i++) {
+				layer[i] = (float) (rn.nextGaussian() * 0.1);
+			}
+		}
+		return new NeuralNetEvaluator(hidden, weights[0], weights[1],
+				weights[2], weights[3]);
+	}
+
+	/**
+	 * Reads weights written by save: magic, INPUTS, hidden units and OUTPUTS
+	 * as ints, then hidden weights, hidden biases, output weights and output
+	 * biases as floats
+	 *
+	 * @param file
+	 *            weights file
+	 * @return net with the weights
+	 * @throws IOException
+	 *             if the file can't be read or is not a weights file
+	 */
+	public static NeuralNetEvaluator load(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != INPUTS) {
+				throw new IOException("not a weights file: " + file);
+			}
+			int hidden = in.readInt();
+			if (hidden <= 0 || in.readInt() != OUTPUTS) {
+				throw new IOException("not a weights file: " + file);
+			}
+			float[][] weights = { new float[INPUTS * hidden],
+					new float[hidden], new float[hidden * OUTPUTS],
+					new float[OUTPUTS] };
+			for (float[] layer : weights) {
+				for (int i = 0; i < layer.length; i++) {
+					layer[i] = in.readFloat();
+				}
+			}
+			return new NeuralNetEvaluator(hidden, weights[0], weights[1],
+					weights[2], weights[3]);
+		}
+	}
+
+	/**
+	 * @param file
+	 *            file to write the weights to, replaced if it is there
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void save(Path file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(INPUTS);
+			out.writeInt(hidden);
+			out.writeInt(OUTPUTS);
+			for (float[] layer : new float[][] { hiddenWeights, hiddenBias,
+					outputWeights, outputBias }) {
+				for (float weight : layer) {
+					out.writeFloat(weight);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Net from the file in FILE_PROPERTY or DEFAULT_FILE, loaded on the first
+	 * call
+	 *
+	 * @return net or null if there is no file
+	 */
+	public static synchronized NeuralNetEvaluator getDefault() {
+		if (!defaultLoaded) {
+			defaultLoaded = true;
+			Path file = Paths.get(System.getProperty(FILE_PROPERTY,
+					DEFAULT_FILE));
+			if (Files.isRegularFile(file)) {
+				try {
+					defaultNet = load(file);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+		return defaultNet;
+	}
+
+	public int getHiddenUnits() {
+		return hidden;
+	}
+
+	@Override
+	public void evaluate(byte[][] positions, int count, Color onRoll,
+			float[] outputs) {
+		float[] sums = scratch.get();
+		for (int b = 0; b < count; b++) {
+			setState(positions[b], onRoll, sums, 0);
+			evaluateState(sums, 0, outputs, b * OUTPUTS);
+		}
+	}
+
+	/**
+	 * @return hidden units, the state is their sums before the sigmoid
+	 */
+	@Override
+	public int getStateSize() {
+		return hidden;
+	}
+
+	@Override
+	public void setState(byte[] position, Color onRoll, float[] states,
+			int offset) {
+		System.arraycopy(hiddenBias, 0, states, offset, hidden);
+		for (int field = 0; field < Board.TOTAL_NO_OF_FIELDS; field++) {
+			addField(states, offset, field, position[field], 1);
+		}
+		addInput(states, offset, TO_MOVE_INPUT + onRoll.ordinal(), 1);
+	}
+
+	@Override
+	public void updateField(float[] states, int offset, int field,
+			int before, int after) {
+		addField(states, offset, field, before, -1);
+		addField(states, offset, field, after, 1);
+	}
+
+	@Override
+	public void evaluateStates(float[] states, int count, float[] outputs) {
+		for (int b = 0; b < count; b++) {
+			evaluateState(states, b * hidden, outputs, b * OUTPUTS);
+		}
+	}
+
+	/**
+	 * Adds or takes away what the pieces on one field give to the hidden sums
+	 *
+	 * @param sums
+	 *            hidden sums to change
+	 * @param offset
+	 *            where the sums start
+	 * @param field
+	 *            field 0-27
+	 * @param amount
+	 *            pieces on the field, white positive and black negative
+	 * @param sign
+	 *            1 to add the pieces, -1 to take them away
+	 */
+	private void addField(float[] sums, int offset, int field, int amount,
+			float sign) {
+		if (amount == 0) {
+			return;
+		}
+		int color = amount > 0 ? 0 : 1;
+		int pieces = Math.abs(amount);
+		switch (field) {
+		case Board.WHITEBAR:
+		case Board.BLACKBAR:
+			addInput(sums, offset, BAR_INPUT + color, sign * pieces / 2f);
+			break;
+		case Board.WHITEBEAROFF:
+		case Board.BLACKBEAROFF:
+			addInput(sums, offset, BEAROFF_INPUT + color, sign * pieces / 15f);
+			break;
+		default:
+			int input = ((field - 1) * 2 + color) * UNITS_PER_POINT;
+			addInput(sums, offset, input, sign);
+			if (pieces >= 2)
+				addInput(sums, offset, input + 1, sign);
+			if (pieces >= 3)
+				addInput(sums, offset, input + 2, sign);
+			if (pieces > 3)
+				addInput(sums, offset, input + 3, sign * (pieces - 3) / 2f);
+			break;
+		}
+	}
+
+	private void addInput(float[] sums, int offset, int input, float value) {
+		int weight = input * hidden;
+		for (int h = 0; h < hidden; h++) {
+			sums[offset + h] += value * hiddenWeights[weight + h];
+		}
+	}
+
+	/**
+	 * Runs the hidden and output units from the hidden sums
+	 *
+	 * @param sums
+	 *            hidden sums
+	 * @param offset
+	 *            where the sums start
+	 * @param outputs
+	 *            filled with OUTPUTS chances
+	 * @param outputOffset
+	 *            where to put the chances
+	 */
+	private void evaluateState(float[] sums, int offset, float[] outputs,
+			int outputOffset) {
+		// one local per output, so nothing is created per board
+		float win = outputBias[WIN];
+		float winGammon = outputBias[WIN_GAMMON];
+		float winBackgammon = outputBias[WIN_BACKGAMMON];
+		float loseGammon = outputBias[LOSE_GAMMON];
+		float loseBackgammon = outputBias[LOSE_BACKGAMMON];
+		for (int h = 0; h < hidden; h++) {
+			float activation = sigmoid(sums[offset + h]);
+			int weight = h * OUTPUTS;
+			win += activation * outputWeights[weight + WIN];
+			winGammon += activation * outputWeights[weight + WIN_GAMMON];
+			winBackgammon += activation
+					* outputWeights[weight + WIN_BACKGAMMON];
+			loseGammon += activation * outputWeights[weight + LOSE_GAMMON];
+			loseBackgammon += activation
+					* outputWeights[weight + LOSE_BACKGAMMON];
+		}
+		win = sigmoid(win);
+		// gammons can't be more likely than the game they are part of
+		winGammon = Math.min(sigmoid(winGammon), win);
+		loseGammon = Math.min(sigmoid(loseGammon), 1 - win);
+		outputs[outputOffset + WIN] = win;
+		outputs[outputOffset + WIN_GAMMON] = winGammon;
+		outputs[outputOffset + WIN_BACKGAMMON] = Math.min(
+				sigmoid(winBackgammon), winGammon);
+		outputs[outputOffset + LOSE_GAMMON] = loseGammon;
+		outputs[outputOffset + LOSE_BACKGAMMON] = Math.min(
+				sigmoid(loseBackgammon), loseGammon);
+	}
+
+	private static float sigmoid(float x) {
+		return (float) (1 / (1 + Math.exp(-x)));
+	}
+}
@@ -0,0 +1,67 @@
+package com.skeshmiri.backgammon.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Picks the plays worth a deeper search from plays ranked by a cheap
+ *          evaluation. The best keep plays always go on, and so does any
+ *          other play whose equity is within margin of the best one, so close
+ *          plays are not cut off by an arbitrary count
+ *
+ */
+public class PlayFilter {
+	private int keep;
+	private float margin;
+
+	/**
+	 * @param keep
+	 *            plays always kept, at least 1
+	 * @param margin
+	 *            plays at most this much equity below the best are kept too
+	 */
+	public PlayFilter(int keep, float margin) {
+		if (keep < 1 || margin < 0) {
+			throw new IllegalArgumentException("keep " + keep + " margin "
+					+ margin);
+		}
+		this.keep = keep;
+		this.margin = margin;
+	}
+
+	public int getKeep() {
+		return keep;
+	}
+
+	public float getMargin() {
+		return margin;
+	}
+
+	/**
+	 * @param ranked
+	 *            plays ranked best first, as from PlayRanker
+	 * @return plays to search deeper, best first
+	 */
+	public List<Play> filter(ScoredPlay[] ranked) {
+		List<Play> kept = new ArrayList<Play>();
+		for (int i = 0; i < ranked.length; i++) {
+			if (i >= keep
+					&& ranked[0].getEquity() - ranked[i].getEquity() > margin) {
+				break;
+			}
+			kept.add(ranked[i].getPlay());
+		}
+		return kept;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("keep %d, margin %.3f", keep, margin);
+	}
+}
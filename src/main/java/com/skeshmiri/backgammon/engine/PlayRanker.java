@@ -0,0 +1,191 @@
+package com.skeshmiri.backgammon.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+import com.skeshmiri.backgammon.game.Play;
+import com.skeshmiri.backgammon.game.PositionClass;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Scores all plays of a roll with one Evaluator call and ranks them,
+ *          best play first
+ *
+ *          Every Play already carries the packed board it leads to, so no
+ *          Board is copied. With an IncrementalEvaluator the state of the
+ *          board before the roll is made once and each play only updates the
+ *          few fields it changed. Plays bearing off the last piece are not
+ *          given to the evaluator, they are a sure win, with gammons and
+ *          backgammons from Board.getGamePoints. A ClassifyingEvaluator is
+ *          split by the board before the roll, see there
+ *
+ *          Buffers are kept between calls, not thread safe, every thread
+ *          should use its own ranker
+ *
+ */
+public class PlayRanker {
+	private Evaluator evaluator;
+	private float[] states = new float[0];
+	private byte[][] positions = new byte[0][];
+	private float[] outputs = new float[0];
+	private int[] raceIndexes = new int[0];
+	private float[] raceOutputs = new float[0];
+
+	/**
+	 * @param evaluator
+	 *            scores the boards after the plays
+	 */
+	public PlayRanker(Evaluator evaluator) {
+		this.evaluator = evaluator;
+	}
+
+	public Evaluator getEvaluator() {
+		return evaluator;
+	}
+
+	/**
+	 * @param board
+	 *            board before the plays, with the player who made them as
+	 *            current player
+	 * @param plays
+	 *            plays of one roll, as from findValidPlays()
+	 * @return plays with their chances for the current player, highest
+	 *         equity first, ties in the order of plays
+	 */
+	public ScoredPlay[] rank(Board board, List<? extends Play> plays) {
+		int count = plays.size();
+		Color opponent = board.getCurrentPlayer() == Color.WHITE ? Color.BLACK
+				: Color.WHITE;
+		if (outputs.length < count * Evaluator.OUTPUTS) {
+			outputs = new float[count * Evaluator.OUTPUTS];
+		}
+
+		Evaluator scorer = evaluator;
+		Evaluator race = null;
+		if (evaluator instanceof ClassifyingEvaluator) {
+			ClassifyingEvaluator classifying = (ClassifyingEvaluator) evaluator;
+			if (board.getPositionClass() == PositionClass.CONTACT) {
+				scorer = classifying.getContact();
+				race = classifying.getRace();
+			} else {
+				// no play turns a race back into contact
+				scorer = classifying.getRace();
+			}
+		}
+
+		if (scorer instanceof IncrementalEvaluator) {
+			evaluateIncrementally((IncrementalEvaluator) scorer,
+					board.getCheckers(), opponent, plays);
+		} else {
+			if (positions.length < count) {
+				positions = new byte[count][];
+			}
+			for (int i = 0; i < count; i++) {
+				positions[i] = plays.get(i).getPosition();
+			}
+			scorer.evaluate(positions, count, opponent, outputs);
+		}
+		if (race != null) {
+			evaluateRaces(race, opponent, plays);
+		}
+
+		ScoredPlay[] ranked = new ScoredPlay[count];
+		for (int i = 0; i < count; i++) {
+			Play play = plays.get(i);
+			float[] chances = getFinishedChances(play.getPosition(),
+					play.getPlayer());
+			if (chances == null) {
+				// chances are for the opponent who throws next
+				Evaluator.invert(outputs, i * Evaluator.OUTPUTS);
+				chances = Arrays.copyOfRange(outputs, i * Evaluator.OUTPUTS,
+						(i + 1) * Evaluator.OUTPUTS);
+			}
+			ranked[i] = new ScoredPlay(play, chances);
+		}
+		Arrays.sort(ranked, (a, b) -> Float.compare(b.getEquity(),
+				a.getEquity()));
+		return ranked;
+	}
+
+	/**
+	 * @param position
+	 *            packed board after a play
+	 * @param player
+	 *            player who made the play
+	 * @return chances of a game the player has won, null if not all pieces
+	 *         are off
+	 */
+	static float[] getFinishedChances(byte[] position, Color player) {
+		boolean isWhite = player == Color.WHITE;
+		if (Math.abs(position[isWhite ? Board.WHITEBEAROFF
+				: Board.BLACKBEAROFF]) < 15) {
+			return null;
+		}
+		float[] chances = new float[Evaluator.OUTPUTS];
+		int points = Board.getGamePoints(position);
+		chances[Evaluator.WIN] = 1;
+		chances[Evaluator.WIN_GAMMON] = points >= 2 ? 1 : 0;
+		chances[Evaluator.WIN_BACKGAMMON] = points == 3 ? 1 : 0;
+		return chances;
+	}
+
+	/**
+	 * Scores the plays that broke contact again with the race evaluator
+	 */
+	private void evaluateRaces(Evaluator race, Color opponent,
+			List<? extends Play> plays) {
+		int count = plays.size();
+		if (raceIndexes.length < count) {
+			raceIndexes = new int[count];
+			raceOutputs = new float[count * Evaluator.OUTPUTS];
+		}
+		if (positions.length < count) {
+			positions = new byte[count][];
+		}
+		int races = 0;
+		for (int i = 0; i < count; i++) {
+			byte[] position = plays.get(i).getPosition();
+			if (Board.getPositionClass(position) != PositionClass.CONTACT) {
+				raceIndexes[races] = i;
+				positions[races++] = position;
+			}
+		}
+		if (races == 0) {
+			return;
+		}
+		race.evaluate(positions, races, opponent, raceOutputs);
+		for (int r = 0; r < races; r++) {
+			System.arraycopy(raceOutputs, r * Evaluator.OUTPUTS, outputs,
+					raceIndexes[r] * Evaluator.OUTPUTS, Evaluator.OUTPUTS);
+		}
+	}
+
+	private void evaluateIncrementally(IncrementalEvaluator incremental,
+			byte[] before, Color opponent, List<? extends Play> plays) {
+		int count = plays.size();
+		int size = incremental.getStateSize();
+		if (states.length < count * size) {
+			states = new float[count * size];
+		}
+		incremental.setState(before, opponent, states, 0);
+		for (int i = 1; i < count; i++) {
+			System.arraycopy(states, 0, states, i * size, size);
+		}
+		for (int i = 0; i < count; i++) {
+			int offset = i * size;
+			byte[] after = plays.get(i).getPosition();
+			for (int field = 0; field < Board.TOTAL_NO_OF_FIELDS; field++) {
+				if (after[field] != before[field]) {
+					incremental.updateField(states, offset, field,
+							before[field], after[field]);
+				}
+			}
+		}
+		incremental.evaluateStates(states, count, outputs);
+	}
+}
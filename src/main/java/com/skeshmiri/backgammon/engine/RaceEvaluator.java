@@ -0,0 +1,179 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Evaluator for races, boards without contact. Each player gets an
+ *          adjusted pip count: the pips plus the pips likely to be wasted,
+ *          for pieces stacked on the 1, 2 and 3 points, for gaps on the 4, 5
+ *          and 6 points and for quadrants pieces outside home still have to
+ *          cross. The player who throws first then wins about as often as a
+ *          normal distribution gives for the difference of the counts,
+ *          throwing first being worth about 5 pips. Weights were checked
+ *          against races played out with this evaluator and the two sided
+ *          bear off database
+ *
+ *          Gammons are worked out the same way, from the pips the losing
+ *          player needs to bring all pieces home and bear one off
+ *
+ *          Boards in contact get nonsense chances, only give it races. Has no
+ *          state, can be used by many threads
+ *
+ */
+public class RaceEvaluator implements Evaluator {
+	/**
+	 * average pips of a throw, 49/6
+	 */
+	private static final double PIPS_PER_THROW = 49 / 6.0;
+
+	/**
+	 * spread of the throws needed to get home, in throws per square root of
+	 * the pips. The variance of the pips of a throw gives 0.184, played out
+	 * races spread a little less
+	 */
+	private static final double SPREAD_PER_PIP = 0.17;
+
+	/**
+	 * pips throwing first is worth
+	 */
+	private static final double ON_ROLL_PIPS = 5;
+
+	/**
+	 * pips added for each quadrant a piece still has to cross to get home
+	 */
+	private static final double CROSSOVER_PIPS = 0.5;
+
+	@Override
+	public void evaluate(byte[][] positions, int count, Color onRoll,
+			float[] outputs) {
+		Color other = onRoll == Color.WHITE ? Color.BLACK : Color.WHITE;
+		for (int b = 0; b < count; b++) {
+			byte[] position = positions[b];
+			double own = getAdjustedPips(position, onRoll);
+			double opponent = getAdjustedPips(position, other);
+			int offset = b * OUTPUTS;
+			float win = (float) getWinningChance(own, opponent);
+			outputs[offset + WIN] = win;
+			outputs[offset + WIN_GAMMON] = 0;
+			outputs[offset + WIN_BACKGAMMON] = 0;
+			outputs[offset + LOSE_GAMMON] = 0;
+			outputs[offset + LOSE_BACKGAMMON] = 0;
+			if (getBorneOff(position, other) == 0) {
+				outputs[offset + WIN_GAMMON] = Math.min(win,
+						(float) getWinningChance(own,
+								getPipsToFirstOff(position, other)));
+			}
+			if (getBorneOff(position, onRoll) == 0) {
+				outputs[offset + LOSE_GAMMON] = Math.min(1 - win,
+						1 - (float) getWinningChance(
+								getPipsToFirstOff(position, onRoll), opponent));
+			}
+		}
+	}
+
+	/**
+	 * @param own
+	 *            pips of the player who throws next
+	 * @param opponent
+	 *            pips of the other player
+	 * @return chance the player who throws next gets home first
+	 */
+	static double getWinningChance(double own, double opponent) {
+		if (own <= 0) {
+			return 1;
+		}
+		if (opponent <= 0) {
+			return 0;
+		}
+		double lead = opponent - own + ON_ROLL_PIPS;
+		double spread = SPREAD_PER_PIP * PIPS_PER_THROW
+				* Math.sqrt(own + opponent);
+		return normal(lead / spread);
+	}
+
+	/**
+	 * Pips plus the pips likely to be wasted on the way
+	 *
+	 * @param position
+	 *            packed board
+	 * @param player
+	 *            white or black
+	 * @return adjusted pip count, 0 if all pieces are off
+	 */
+	public static double getAdjustedPips(byte[] position, Color player) {
+		int pips = 0;
+		int crossovers = 0;
+		for (int point = 1; point <= 25; point++) {
+			int pieces = getPieces(position, player, point);
+			pips += pieces * point;
+			crossovers += pieces * ((point - 1) / 6);
+		}
+		if (pips == 0) {
+			return 0;
+		}
+		int wasted = 2 * Math.max(getPieces(position, player, 1) - 1, 0)
+				+ Math.max(getPieces(position, player, 2) - 1, 0)
+				+ Math.max(getPieces(position, player, 3) - 3, 0);
+		for (int point = 4; point <= 6; point++) {
+			if (getPieces(position, player, point) == 0) {
+				wasted++;
+			}
+		}
+		return pips + wasted + CROSSOVER_PIPS * crossovers;
+	}
+
+	/**
+	 * @return pips to bring every piece to the 6 point, plus the pips of the
+	 *         lowest piece at home, for a player with no piece off yet
+	 */
+	private static int getPipsToFirstOff(byte[] position, Color player) {
+		int pips = 0;
+		int lowest = 6;
+		for (int point = 25; point >= 1; point--) {
+			int pieces = getPieces(position, player, point);
+			if (point > 6) {
+				pips += pieces * (point - 6);
+			} else if (pieces > 0) {
+				lowest = point;
+			}
+		}
+		return pips + lowest;
+	}
+
+	/**
+	 * @param point
+	 *            point of the player 1-24, 25 for the bar
+	 * @return pieces of the player on the point
+	 */
+	private static int getPieces(byte[] position, Color player, int point) {
+		if (player == Color.WHITE) {
+			return Math.max(position[Board.BLACKBAR - point], 0);
+		}
+		return Math.max(-position[point], 0);
+	}
+
+	private static int getBorneOff(byte[] position, Color player) {
+		return Math.abs(position[player == Color.WHITE ? Board.WHITEBEAROFF
+				: Board.BLACKBEAROFF]);
+	}
+
+	/**
+	 * Standard normal distribution, Abramowitz and Stegun 26.2.17
+	 */
+	private static double normal(double z) {
+		double t = 1 / (1 + 0.2316419 * Math.abs(z));
+		double tail = Math.exp(-z * z / 2)
+				/ Math.sqrt(2 * Math.PI)
+				* t
+				* (0.319381530 + t
+						* (-0.356563782 + t
+								* (1.781477937 + t
+										* (-1.821255978 + t * 1.330274429))));
+		return z >= 0 ? 1 - tail : tail;
+	}
+}
@@ -0,0 +1,224 @@
+package com.skeshmiri.backgammon.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import com.skeshmiri.backgammon.game.BearoffDatabase;
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+import com.skeshmiri.backgammon.game.Dice;
+import com.skeshmiri.backgammon.game.GameDriver;
+import com.skeshmiri.backgammon.game.MoveChooser;
+import com.skeshmiri.backgammon.game.Play;
+import com.skeshmiri.backgammon.game.PlayBook;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Monte Carlo rollout of candidate plays. Every candidate is made on
+ *          the board and played out to the end many times, the average
+ *          result is its equity
+ *
+ *          Games are split in tasks of a few games each and run on a
+ *          ForkJoinPool, so all cores are used. Every task has its own Board,
+ *          Dice and choosers, nothing is shared between threads while games
+ *          are played
+ *
+ *          Games of every candidate are numbered from 0 and dice are told the
+ *          number with startGame. With RolloutDice every candidate then gets
+ *          the same spread out and mirrored rolls, which cuts the games
+ *          needed and makes candidates fairer to compare. The standard error
+ *          is worked out from the average of each pair of games, so it shows
+ *          what mirroring saved
+ *
+ *          With a bear off database set, games reaching a bear off it knows
+ *          are not played on, their exact winning chance is used as the
+ *          result
+ *
+ */
+public class Rollout {
+	/**
+	 * games played by one task before it is not split any further
+	 */
+	private static final int GAMES_PER_TASK = 32;
+
+	private ForkJoinPool pool;
+	private Supplier<MoveChooser> choosers;
+	private Supplier<Dice> dices;
+	private BearoffDatabase bearoff;
+	private PlayBook book;
+
+	/**
+	 * Rollout on the common pool with new Dice for every task
+	 *
+	 * @param choosers
+	 *            makes choosers for both players, called once per task
+	 */
+	public Rollout(Supplier<MoveChooser> choosers) {
+		this(ForkJoinPool.commonPool(), choosers, Dice::new);
+	}
+
+	/**
+	 * @param pool
+	 *            pool games are played on
+	 * @param choosers
+	 *            makes choosers for both players, called once per task
+	 * @param dices
+	 *            makes dice for a task, called once per task
+	 */
+	public Rollout(ForkJoinPool pool, Supplier<MoveChooser> choosers,
+			Supplier<Dice> dices) {
+		this.pool = pool;
+		this.choosers = choosers;
+		this.dices = dices;
+	}
+
+	/**
+	 * @param bearoff
+	 *            database games are settled with once both players bear off,
+	 *            e.g. TwoSidedBearoff.getDefault(). Without one, or with null,
+	 *            every game is played to the end
+	 */
+	public void setBearoffDatabase(BearoffDatabase bearoff) {
+		this.bearoff = bearoff;
+	}
+
+	/**
+	 * @param book
+	 *            book the games take early plays from, e.g.
+	 *            OpeningBook.getDefault(). Without one, or with null, the
+	 *            choosers pick every play
+	 */
+	public void setOpeningBook(PlayBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * Rolls out every candidate play, all candidates are played at the same
+	 * time
+	 *
+	 * @param board
+	 *            board before the plays, left as it is
+	 * @param candidates
+	 *            plays of the same player, e.g. from board.findValidPlays()
+	 * @param games
+	 *            games to play for each candidate
+	 * @return results in the same order as the candidates
+	 */
+	public RolloutResult[] rollout(final Board board, final List<Play> candidates,
+			final int games) {
+		return pool.invoke(new RecursiveTask<RolloutResult[]>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected RolloutResult[] compute() {
+				List<RolloutTask> tasks = new ArrayList<RolloutTask>();
+				for (Play candidate : candidates) {
+					tasks.add(new RolloutTask(board, candidate, 0, games));
+				}
+				ForkJoinTask.invokeAll(tasks);
+
+				RolloutResult[] results = new RolloutResult[tasks.size()];
+				for (int i = 0; i < results.length; i++) {
+					Tally tally = tasks.get(i).join();
+					results[i] = new RolloutResult(candidates.get(i),
+							tally.games, tally.wins, tally.samples, tally.sum,
+							tally.sumOfSquares);
+				}
+				return results;
+			}
+		});
+	}
+
+	/**
+	 * Sums of game results
+	 */
+	private static class Tally {
+		long games;
+		double wins;
+		long samples;
+		double sum;
+		double sumOfSquares;
+
+		void add(Tally other) {
+			games += other.games;
+			wins += other.wins;
+			samples += other.samples;
+			sum += other.sum;
+			sumOfSquares += other.sumOfSquares;
+		}
+	}
+
+	/**
+	 * Plays some games of a candidate, splitting in halves while there are
+	 * more than GAMES_PER_TASK
+	 */
+	private class RolloutTask extends RecursiveTask<Tally> {
+		private static final long serialVersionUID = 1L;
+
+		private Board board;
+		private Play candidate;
+		private long firstGame;
+		private int games;
+
+		RolloutTask(Board board, Play candidate, long firstGame, int games) {
+			this.board = board;
+			this.candidate = candidate;
+			this.firstGame = firstGame;
+			this.games = games;
+		}
+
+		@Override
+		protected Tally compute() {
+			if (games > GAMES_PER_TASK) {
+				// split on a pair, both games of a pair are one sample
+				int half = games / 2 & ~1;
+				RolloutTask firstHalf = new RolloutTask(board, candidate,
+						firstGame, half);
+				RolloutTask secondHalf = new RolloutTask(board, candidate,
+						firstGame + half, games - half);
+				firstHalf.fork();
+				Tally tally = secondHalf.compute();
+				tally.add(firstHalf.join());
+				return tally;
+			}
+
+			MoveChooser chooser = choosers.get();
+			Dice dice = dices.get();
+			GameDriver driver = new GameDriver(chooser, chooser, dice);
+			driver.setBearoffDatabase(bearoff);
+			driver.setOpeningBook(book);
+			Board game = new Board(board);
+			boolean isWhite = candidate.getPlayer() == Color.WHITE;
+
+			Tally tally = new Tally();
+			double pairSum = 0;
+			for (int i = 0; i < games; i++) {
+				game.setCheckers(candidate.getPosition());
+				dice.startGame(firstGame + i);
+				// opponent throws next
+				driver.playGame(game, !isWhite);
+				double winningChance = isWhite ? driver
+						.getWhiteWinningChance() : 1 - driver
+						.getWhiteWinningChance();
+				tally.games++;
+				tally.wins += winningChance;
+				pairSum += (2 * winningChance - 1) * driver.getGamePoints();
+				if (i % 2 == 1 || i == games - 1) {
+					double sample = pairSum / (i % 2 + 1);
+					tally.samples++;
+					tally.sum += sample;
+					tally.sumOfSquares += sample * sample;
+					pairSum = 0;
+				}
+			}
+			return tally;
+		}
+	}
+}
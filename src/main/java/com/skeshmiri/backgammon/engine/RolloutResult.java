@@ -0,0 +1,86 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Outcome of rolling out one candidate play. Equity is the average
+ *          result of the games for the player who made the play, +1, +2 or
+ *          +3 for winning a single game, gammon or backgammon and the same
+ *          negative for losing, or 2 * winning chance - 1 for a game settled
+ *          from a bear off database
+ *
+ */
+public class RolloutResult {
+	private Play play;
+	private long games;
+	private double wins;
+	private double equity;
+	private double standardError;
+
+	/**
+	 * @param play
+	 *            candidate play that was rolled out
+	 * @param games
+	 *            games played
+	 * @param wins
+	 *            games won by the player who made the play, games settled
+	 *            from a bear off database count their winning chance
+	 * @param samples
+	 *            independent samples the results are summed from, e.g. one
+	 *            per pair of mirrored games
+	 * @param sum
+	 *            sum of the sample results
+	 * @param sumOfSquares
+	 *            sum of the squared sample results
+	 */
+	public RolloutResult(Play play, long games, double wins, long samples,
+			double sum, double sumOfSquares) {
+		this.play = play;
+		this.games = games;
+		this.wins = wins;
+		equity = sum / samples;
+		if (samples > 1) {
+			double variance = (sumOfSquares - sum * equity) / (samples - 1);
+			standardError = Math.sqrt(Math.max(variance, 0) / samples);
+		}
+	}
+
+	public Play getPlay() {
+		return play;
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return share of games won, 0-1
+	 */
+	public double getWinRate() {
+		return wins / games;
+	}
+
+	/**
+	 * @return average result for the player who made the play, -3 to 3
+	 */
+	public double getEquity() {
+		return equity;
+	}
+
+	/**
+	 * @return standard error of the equity
+	 */
+	public double getStandardError() {
+		return standardError;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-20s %+.4f +- %.4f (%d games)", play, equity,
+				standardError, games);
+	}
+}
@@ -0,0 +1,54 @@
+package com.skeshmiri.backgammon.engine;
+
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Candidate play with the chances an Evaluator gave the board after
+ *          it, for the player who made the play
+ *
+ */
+public class ScoredPlay {
+	private Play play;
+	private float[] chances;
+	private float equity;
+
+	/**
+	 * @param play
+	 *            candidate play
+	 * @param chances
+	 *            Evaluator.OUTPUTS chances for the player who made the play
+	 */
+	public ScoredPlay(Play play, float[] chances) {
+		this.play = play;
+		this.chances = chances;
+		equity = Evaluator.getEquity(chances, 0);
+	}
+
+	public Play getPlay() {
+		return play;
+	}
+
+	/**
+	 * @return chances indexed by Evaluator.WIN etc, not to be changed
+	 */
+	public float[] getChances() {
+		return chances;
+	}
+
+	/**
+	 * @return cubeless equity for the player who made the play, -3 to 3
+	 */
+	public float getEquity() {
+		return equity;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-20s %+.4f (win %.3f gammon %.3f)", play,
+				equity, chances[Evaluator.WIN], chances[Evaluator.WIN_GAMMON]);
+	}
+}
@@ -0,0 +1,185 @@
+package com.skeshmiri.backgammon.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import com.skeshmiri.backgammon.game.Board;
+import com.skeshmiri.backgammon.game.Color;
+import com.skeshmiri.backgammon.game.Dice;
+import com.skeshmiri.backgammon.game.MoveChooser;
+import com.skeshmiri.backgammon.game.Play;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Two ply expectiminimax search. After every candidate play the
+ *          opponent throws each of the 21 different rolls, picks the reply
+ *          the Evaluator scores best for itself and the chances after that
+ *          reply are averaged over the rolls, doubles counting 1/36 and other
+ *          rolls 2/36
+ *
+ *          Every candidate and roll is its own task on a ForkJoinPool. A task
+ *          sets the roll on its own Board with setDices and setPlayers, so
+ *          black gets negative dices as in the game, and ranks the replies
+ *          from findValidPlays with its own PlayRanker. The evaluator is
+ *          shared by all tasks and has to be thread safe
+ *
+ *          With a PlayFilter the candidates are first ranked with one
+ *          evaluation each and only the plays the filter keeps are searched
+ *
+ */
+public class TwoPlySearch implements MoveChooser {
+	private ForkJoinPool pool;
+	private Evaluator evaluator;
+	private PlayFilter filter;
+
+	/**
+	 * Search on the common pool
+	 *
+	 * @param evaluator
+	 *            thread safe evaluator of the boards after the replies
+	 */
+	public TwoPlySearch(Evaluator evaluator) {
+		this(ForkJoinPool.commonPool(), evaluator);
+	}
+
+	/**
+	 * @param pool
+	 *            pool the rolls are searched on
+	 * @param evaluator
+	 *            thread safe evaluator of the boards after the replies
+	 */
+	public TwoPlySearch(ForkJoinPool pool, Evaluator evaluator) {
+		this.pool = pool;
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * @param filter
+	 *            picks the candidates to search, null to search all of them
+	 */
+	public void setFilter(PlayFilter filter) {
+		this.filter = filter;
+	}
+
+	@Override
+	public Play choosePlay(Board board, ArrayList<Play> plays) {
+		return search(board, plays)[0].getPlay();
+	}
+
+	/**
+	 * Searches the candidate plays, all candidates and rolls at the same time
+	 *
+	 * @param board
+	 *            board before the plays, left as it is
+	 * @param candidates
+	 *            plays of the same player, e.g. from board.findValidPlays()
+	 * @return candidates with their chances for the player who made them,
+	 *         highest equity first, ties in the order of candidates. Plays
+	 *         dropped by the filter come after the searched ones with their
+	 *         one ply chances
+	 */
+	public ScoredPlay[] search(Board board, List<? extends Play> candidates) {
+		if (filter == null || candidates.size() <= filter.getKeep()) {
+			return searchAll(board, candidates);
+		}
+		ScoredPlay[] ranked = new PlayRanker(evaluator).rank(board, candidates);
+		List<Play> kept = filter.filter(ranked);
+		if (kept.size() == ranked.length) {
+			return searchAll(board, candidates);
+		}
+		ScoredPlay[] scored = Arrays.copyOf(searchAll(board, kept),
+				ranked.length);
+		System.arraycopy(ranked, kept.size(), scored, kept.size(),
+				ranked.length - kept.size());
+		return scored;
+	}
+
+	private ScoredPlay[] searchAll(final Board board,
+			final List<? extends Play> candidates) {
+		return pool.invoke(new RecursiveTask<ScoredPlay[]>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected ScoredPlay[] compute() {
+				int rolls = Dice.DISTINCT_ROLLS.length;
+				List<ReplyTask> tasks = new ArrayList<ReplyTask>();
+				for (Play candidate : candidates) {
+					if (PlayRanker.getFinishedChances(candidate.getPosition(),
+							candidate.getPlayer()) != null) {
+						// game is over, opponent does not throw
+						continue;
+					}
+					for (int r = 0; r < rolls; r++) {
+						tasks.add(new ReplyTask(board, candidate,
+								Dice.DISTINCT_ROLLS[r]));
+					}
+				}
+				ForkJoinTask.invokeAll(tasks);
+
+				ScoredPlay[] scored = new ScoredPlay[candidates.size()];
+				int task = 0;
+				for (int i = 0; i < scored.length; i++) {
+					Play candidate = candidates.get(i);
+					float[] chances = PlayRanker.getFinishedChances(
+							candidate.getPosition(), candidate.getPlayer());
+					if (chances == null) {
+						chances = new float[Evaluator.OUTPUTS];
+						for (int r = 0; r < rolls; r++) {
+							float chance = (float) Dice
+									.getChance(Dice.DISTINCT_ROLLS[r]);
+							float[] reply = tasks.get(task++).join();
+							for (int o = 0; o < Evaluator.OUTPUTS; o++) {
+								chances[o] += chance * reply[o];
+							}
+						}
+					}
+					scored[i] = new ScoredPlay(candidate, chances);
+				}
+				Arrays.sort(scored, (a, b) -> Float.compare(b.getEquity(),
+						a.getEquity()));
+				return scored;
+			}
+		});
+	}
+
+	/**
+	 * Finds the opponent's best reply to a candidate for one roll
+	 */
+	private class ReplyTask extends RecursiveTask<float[]> {
+		private static final long serialVersionUID = 1L;
+
+		private Board board;
+		private Play candidate;
+		private int[] roll;
+
+		ReplyTask(Board board, Play candidate, int[] roll) {
+			this.board = board;
+			this.candidate = candidate;
+			this.roll = roll;
+		}
+
+		/**
+		 * @return chances after the best reply for the player who made the
+		 *         candidate
+		 */
+		@Override
+		protected float[] compute() {
+			Board reply = new Board(board);
+			reply.setCheckers(candidate.getPosition());
+			reply.setDices(roll);
+			reply.setPlayers(candidate.getPlayer() == Color.BLACK);
+			ScoredPlay best = new PlayRanker(evaluator).rank(reply,
+					reply.findValidPlays())[0];
+			float[] chances = best.getChances().clone();
+			Evaluator.invert(chances, 0);
+			return chances;
+		}
+	}
+}
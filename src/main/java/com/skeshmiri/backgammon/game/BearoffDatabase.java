@@ -0,0 +1,23 @@
+package com.skeshmiri.backgammon.game;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Exact winning chances of bear offs, e.g. the two sided database in
+ *          the bearoff package. GameDriver settles games with it once it knows
+ *          the board
+ *
+ */
+public interface BearoffDatabase {
+
+	/**
+	 * @param board
+	 *            any board
+	 * @param onRoll
+	 *            player who throws next
+	 * @return chance onRoll wins, or -1 if the board is not in the database
+	 */
+	double getWinningChance(Board board, Color onRoll);
+}
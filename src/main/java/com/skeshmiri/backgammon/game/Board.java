@@ -2,9 +2,10 @@ package com.skeshmiri.backgammon.game;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.Stack;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 
@@ -12,13 +13,14 @@ import java.util.Stack;
  * @author Sam Keshmiri
  * @version 5.00
  * 
- *          Board for the backgammon is represented by two arrays, both of size
+ *          Board for the backgammon is represented by one byte array of size
  *          28: 24 playable fields, 2 Bar places for each player and 2 bearoff
- *          places for each player. One array keeps color of pieces currently
- *          stored on it and second keeps the amount of pieces stored on the
- *          field. White player moves from start of array indexes to the end,
- *          positive direction and black player moves from the end of arrays
- *          towards negative indexes in order to achieve winning condition
+ *          places for each player. Each byte keeps the amount of pieces stored
+ *          on the field, positive for white pieces and negative for black, so
+ *          the color is implied by the sign. White player moves from start of
+ *          array indexes to the end, positive direction and black player moves
+ *          from the end of arrays towards negative indexes in order to achieve
+ *          winning condition
  * 
  */
 public class Board implements Cloneable {
@@ -27,20 +29,127 @@ public class Board implements Cloneable {
 			NO_OF_PLAYABLE_FIELDS = 26; // 0-25
 
 	/**
-	 * 2 arrays to represent amount and color of pieces on each field
+	 * Zobrist keys for every field and amount of pieces on it (-15 to 15,
+	 * stored from index 0), plus one key for black to move. Fixed seed so the
+	 * same board gets the same key on every run
 	 */
+	private static final long[][] ZOBRIST_FIELDS = new long[TOTAL_NO_OF_FIELDS][31];
+	private static final long ZOBRIST_BLACK_TO_MOVE;
 
-	private Color[] colorArray;
-	private int[] amountArray;
+	/**
+	 * pips each piece on a field still has to go, borne off pieces have none
+	 */
+	private static final int[] WHITE_PIPS = new int[TOTAL_NO_OF_FIELDS];
+	private static final int[] BLACK_PIPS = new int[TOTAL_NO_OF_FIELDS];
+
+	/**
+	 * masks of fields a piece can be on outside of home, for white 0-18 and
+	 * for black 7-25, and of all fields pieces can move from
+	 */
+	private static final int WHITE_OUTSIDE_HOME = (1 << 19) - 1;
+	private static final int BLACK_OUTSIDE_HOME = (1 << NO_OF_PLAYABLE_FIELDS)
+			- (1 << 7);
+	private static final int PLAYABLE_FIELDS = (1 << NO_OF_PLAYABLE_FIELDS) - 1;
+
+	/**
+	 * masks of the fields that make a backgammon for a losing piece: white
+	 * home 19-24 and the black bar, black home 1-6 and the white bar
+	 */
+	private static final int WHITE_HOME_AND_BLACKBAR = PLAYABLE_FIELDS
+			& ~((1 << 19) - 1);
+	private static final int BLACK_HOME_AND_WHITEBAR = (1 << 7) - 1;
+
+	static {
+		for (int i = 0; i < NO_OF_PLAYABLE_FIELDS; i++) {
+			WHITE_PIPS[i] = BLACKBAR - i;
+			BLACK_PIPS[i] = i;
+		}
+
+		long seed = 0x5DEECE66DL;
+		for (int i = 0; i < TOTAL_NO_OF_FIELDS; i++) {
+			for (int j = 0; j < ZOBRIST_FIELDS[i].length; j++) {
+				seed += 0x9E3779B97F4A7C15L;
+				// an empty field doesn't change the key
+				ZOBRIST_FIELDS[i][j] = j == 15 ? 0 : mixBits(seed);
+			}
+		}
+		seed += 0x9E3779B97F4A7C15L;
+		ZOBRIST_BLACK_TO_MOVE = mixBits(seed);
+	}
+
+	/**
+	 * amount of pieces on each field, white counted positive, black negative
+	 */
+
+	private byte[] checkers;
+
+	/**
+	 * Zobrist key of the pieces, changed together with them
+	 */
+	private long positionKey;
 
-	private ArrayList<Move> validMoves;
+	/**
+	 * pip counts, changed together with the pieces
+	 */
+	private int whitePipCount;
+	private int blackPipCount;
+
+	/**
+	 * bit masks of fields for each color (index is Color.ordinal()), bit N is
+	 * field N. Fields with any pieces, with exactly one piece and with two
+	 * or more, changed together with the pieces
+	 */
+	private int[] pointsHeld;
+	private int[] blots;
+	private int[] madePoints;
+
+	/**
+	 * valid moves packed with PackedMove, getValidMoves() turns them into
+	 * Move objects for the GUI
+	 */
+	private MoveList validMoves;
 	private ArrayList<Integer> possibleMoves;
+
+	/**
+	 * dices left to play are the first diceCount, negative for black
+	 */
 	private int[] dices;
+	private int diceCount;
 
 	private Color opponent;
 	private Color currPlayer;
 	private Stack<Integer> cachedDices;
 
+	/**
+	 * history of moves made with doMove, so they can be taken back with
+	 * undoMove. Dices and players before each move are kept alongside
+	 */
+	private int[] moveHistory;
+	private long[] diceHistory;
+	private Color[] playerHistory;
+	private int historySize;
+
+	/**
+	 * move lists for every level of the legality search, reused between
+	 * searches so that no boards have to be copied
+	 */
+	private ArrayList<MoveList> searchLevels;
+	private int[] amountUsedPerMoves;
+
+	/**
+	 * remembers most dice amount usable from boards already searched. Unless
+	 * a table is set on the board, every thread has one table shared by all
+	 * its boards, so results are kept from turn to turn
+	 */
+	private static final ThreadLocal<TranspositionTable> THREAD_TABLES = new ThreadLocal<TranspositionTable>() {
+		@Override
+		protected TranspositionTable initialValue() {
+			return new TranspositionTable(16);
+		}
+	};
+	private TranspositionTable transpositionTable;
+	private TranspositionTable searchTable;
+
 	/**
 	 * constructor to copy current board representation
 	 * 
@@ -48,13 +157,21 @@ public class Board implements Cloneable {
 
 	@SuppressWarnings("unchecked")
 	public Board(Board board) {
-		amountArray = board.getAmountArray().clone();
-		colorArray = board.getColorArray().clone();
-		dices = board.getDices().clone();
-		validMoves = (ArrayList<Move>) board.getValidMoves().clone();
-		possibleMoves = (ArrayList<Integer>) board.getPossibleMoves().clone();
+		checkers = board.checkers.clone();
+		positionKey = board.positionKey;
+		whitePipCount = board.whitePipCount;
+		blackPipCount = board.blackPipCount;
+		pointsHeld = board.pointsHeld.clone();
+		blots = board.blots.clone();
+		madePoints = board.madePoints.clone();
+		dices = board.dices.clone();
+		diceCount = board.diceCount;
+		validMoves = new MoveList(board.validMoves);
+		possibleMoves = new ArrayList<Integer>();
 		currPlayer = board.getCurrentPlayer();
+		opponent = board.opponent;
 		cachedDices = (Stack<Integer>) board.cachedDices.clone();
+		initialiseHistory();
 	}
 
 	public Board() {
@@ -72,106 +189,56 @@ public class Board implements Cloneable {
 		// 2 for taken away from board pieces (bear off),
 		// [id] 26/27 white/black
 		// total 28
-		colorArray = new Color[TOTAL_NO_OF_FIELDS];
-		amountArray = new int[TOTAL_NO_OF_FIELDS];
-		validMoves = new ArrayList<Move>();
+		checkers = new byte[TOTAL_NO_OF_FIELDS];
+		pointsHeld = new int[2];
+		blots = new int[2];
+		madePoints = new int[2];
+		dices = new int[4];
+		validMoves = new MoveList();
+		possibleMoves = new ArrayList<Integer>();
 		cachedDices = new Stack<>();
+		initialiseHistory();
+
+		// create default field, bars and bear off places start empty
+		changeField(1, 2);
+		changeField(12, 5);
+		changeField(17, 3);
+		changeField(19, 5);
+		changeField(6, -5);
+		changeField(8, -3);
+		changeField(13, -5);
+		changeField(24, -2);
+	}
 
-		// create default field
-		for (int i = 0; i < TOTAL_NO_OF_FIELDS; i++) {
-			switch (i) {
-			case 1:
-				colorArray[i] = Color.WHITE;
-				amountArray[i] = 2;
-				break;
-			case 6:
-			case 13:
-				colorArray[i] = Color.BLACK;
-				amountArray[i] = 5;
-				break;
-			case 8:
-				colorArray[i] = Color.BLACK;
-				amountArray[i] = 3;
-				break;
-			case 12:
-			case 19:
-				colorArray[i] = Color.WHITE;
-				amountArray[i] = 5;
-				break;
-			case 17:
-				colorArray[i] = Color.WHITE;
-				amountArray[i] = 3;
-				break;
-			case 24:
-				colorArray[i] = Color.BLACK;
-				amountArray[i] = 2;
-				break;
-			case WHITEBEAROFF:
-				colorArray[i] = Color.WHITE;
-				amountArray[i] = 0;
-				break;
-			case BLACKBEAROFF:
-				colorArray[i] = Color.BLACK;
-				amountArray[i] = 0;
-				break;
-			case WHITEBAR:
-				colorArray[i] = Color.WHITE;
-				amountArray[i] = 0;
-				break;
-			case BLACKBAR:
-				colorArray[i] = Color.BLACK;
-				amountArray[i] = 0;
-				break;
-			default:
-				colorArray[i] = Color.NONE;
-				amountArray[i] = 0;
-				break;
-			}
-		}
+	private void initialiseHistory() {
+		moveHistory = new int[8];
+		diceHistory = new long[8];
+		playerHistory = new Color[8];
+		historySize = 0;
+		searchLevels = new ArrayList<MoveList>();
+		amountUsedPerMoves = new int[32];
 	}
 
 	/**
-	 * Counts all the white checkers on all fields.
+	 * Pip count of white, kept up to date on every move. White goes towards
+	 * field 25 so every piece counts its distance from there, borne off pieces
+	 * count nothing
 	 * 
 	 * @return the total dice count of field 25 - pip count
 	 */
 
 	public int countWhite() {
-		// pip count is negative number because it's going anti-clockwise
-		// so returns the maximum pip count minus current pip count
-		int max = 375; // 15 checkers * 25 fields = max total dice required to bear off
-		int currentPipCount = 0;
-		int whitePipCount = 0;
-
-		for (int i = 0; i < NO_OF_PLAYABLE_FIELDS; i++) {
-			int fieldCount = 0;
-			if (colorArray[i] == Color.WHITE) {
-				fieldCount += amountArray[i];
-				fieldCount *= i;
-				currentPipCount += fieldCount;
-			}
-		}
-		whitePipCount = max - currentPipCount;
-		
 		return whitePipCount;
 	}
 
 	/**
-	 * counts all the black checkers on all fields to give pip count
+	 * Pip count of black, kept up to date on every move. Black goes towards
+	 * field 0 so every piece counts its field number
 	 * 
 	 * @return pip count of dice total needed to win
 	 */
 
 	public int countBlack() {
-		int blackPipCount = 0;
-		for (int i = 0; i < NO_OF_PLAYABLE_FIELDS; i++) {
-			int fieldCount = 0;
-			if (colorArray[i] == Color.BLACK) {
-				fieldCount += amountArray[i];
-				fieldCount *= i;
-				blackPipCount += fieldCount;
-			}
-		}
 		return blackPipCount;
 	}
 
@@ -181,7 +248,7 @@ public class Board implements Cloneable {
 	 * @return true if there are still not played dices false otherwise
 	 */
 	public boolean isDicesLeft() {
-		if (dices == null)
+		if (diceCount == 0)
 			return false;
 		return true;
 	}
@@ -189,11 +256,12 @@ public class Board implements Cloneable {
 	/**
 	 * Tells what are the current dices
 	 * 
-	 * @return an array of type integer of size 2 with integers showing what
-	 *         dices represent
+	 * @return copy of dices left, null if there are none
 	 */
 	public int[] getDices() {
-		return this.dices;
+		if (diceCount == 0)
+			return null;
+		return Arrays.copyOf(dices, diceCount);
 	}
 
 	/**
@@ -202,10 +270,10 @@ public class Board implements Cloneable {
 	 */
 	public void searchForValidMoves() {
 		validMoves.clear();
-		evalDices();
-		if (possibleMoves.size() != 0) {
-			findValidMoves();
-			refineValidMoves(this, 0);
+		if (diceCount != 0) {
+			startSearch();
+			findValidMoves(validMoves);
+			refineValidMoves();
 		}
 	}
 
@@ -216,70 +284,82 @@ public class Board implements Cloneable {
 	 */
 	public void searchForValidMovesNoRefining() {
 		validMoves.clear();
-		evalDices();
-		findValidMoves();
+		findValidMoves(validMoves);
 	}
 
 	/**
 	 * Method implements backgammon game rules as on UKBGF website
+	 * 
+	 * @param moves
+	 *            list the found moves are added to
 	 */
-	private void findValidMoves() {
-		// used to check if there are pieces on the bar
-		boolean barFlag = true;
+	private void findValidMoves(MoveList moves) {
+		if (diceCount == 0) {
+			return;
+		}
+		// same move amounts evalDices would give, without building a list
+		int firstAmount = dices[0];
+		int secondAmount = 0;
+		if (diceCount == 2 && dices[0] != dices[1]) {
+			secondAmount = dices[1];
+		}
 
-		// playable area, going through all fields
-		for (int i = 0; i < NO_OF_PLAYABLE_FIELDS; i++) {
-			// move own piece check
-			if (colorArray[i] == currPlayer && amountArray[i] > 0) {
-				for (Integer amount : possibleMoves) {
-					// but bear off move
-
-					if (isAllAtHome(currPlayer)) {
-						// bear off move
-						// goes off the grid
-						// amount = actual amount used to move the piece
-						if (currPlayer == Color.WHITE) {
-							if ((i + amount) >= BLACKBAR) {
-								validMoves.add(new Move(MoveType.BEAROFF, i,
-										BLACKBAR - i, WHITEBEAROFF, amount));
-							}
-						} else {
-							if ((i + amount) <= WHITEBAR) {
-								validMoves.add(new Move(MoveType.BEAROFF, i,
-										WHITEBAR - i, BLACKBEAROFF, amount));
-							}
+		int side = getSide(currPlayer);
+		int own = currPlayer.ordinal();
+		int other = 1 - own;
+		boolean allAtHome = isAllAtHome(currPlayer);
+
+		// only moves from bar are allowed if it is not empty
+		int fromFields = pointsHeld[own] & PLAYABLE_FIELDS;
+		if (barNotEmpty(currPlayer)) {
+			fromFields = 1 << (side > 0 ? WHITEBAR : BLACKBAR);
+		}
+
+		// playable area, going through fields with own pieces
+		while (fromFields != 0) {
+			int i = Integer.numberOfTrailingZeros(fromFields);
+			fromFields &= fromFields - 1;
+			for (int d = 0; d < 2; d++) {
+				int amount = d == 0 ? firstAmount : secondAmount;
+				if (amount == 0) {
+					continue;
+				}
+				// but bear off move
+
+				if (allAtHome) {
+					// bear off move
+					// goes off the grid
+					// amount = actual amount used to move the piece
+					if (currPlayer == Color.WHITE) {
+						if ((i + amount) >= BLACKBAR) {
+							moves.add(PackedMove.of(MoveType.BEAROFF, i,
+									WHITEBEAROFF, BLACKBAR - i, amount));
 						}
-					}
-					if (amount == 5)
-					;
-					// boundary check
-					// has to be playable area only
-					// move to: for white up untill BlackBar, for black up until
-					// WHITEBAR
-					if ((i + amount) < BLACKBAR && (i + amount) > WHITEBAR) {
-						// move to own color or empty
-						if (colorArray[i + amount] == currPlayer
-								|| colorArray[i + amount] == Color.NONE) {
-							validMoves
-									.add(new Move(MoveType.NORMAL, i, amount));
-							// hit move
-						} else if (colorArray[i + amount] == opponent
-								&& amountArray[i + amount] == 1) {
-							validMoves
-									.add(new Move(MoveType.CAPTURE, i, amount));
+					} else {
+						if ((i + amount) <= WHITEBAR) {
+							moves.add(PackedMove.of(MoveType.BEAROFF, i,
+									BLACKBEAROFF, WHITEBAR - i, amount));
 						}
 					}
 				}
+				// boundary check
+				// has to be playable area only
+				// move to: for white up untill BlackBar, for black up until
+				// WHITEBAR
+				int to = i + amount;
+				if (to < BLACKBAR && to > WHITEBAR) {
+					int toBit = 1 << to;
+					// move to own color or empty
+					if ((pointsHeld[other] & toBit) == 0) {
+						moves.add(PackedMove.of(MoveType.NORMAL, i, to,
+								amount, 0));
+						// hit move
+					} else if ((blots[other] & toBit) != 0) {
+						moves.add(PackedMove.of(MoveType.CAPTURE, i, to,
+								amount, 0));
+					}
+				}
 			}
-			// only moves from bar are allowed if it is not empty
-			// for both players it need s to be checked so location 0 and 24
-			// are checked
-			if (barNotEmpty(currPlayer) && barFlag) {
-				// counter will get increased by 1
-				i = BLACKBAR - 1;
-				barFlag = false;
-			}
-
 		}
 	}
 
@@ -291,10 +371,8 @@ public class Board implements Cloneable {
 	 * @return
 	 */
 	private boolean barNotEmpty(Color currPlayer) {
-		if ((currPlayer == Color.WHITE && amountArray[WHITEBAR] != 0)
-				|| (currPlayer == Color.BLACK && amountArray[BLACKBAR] != 0))
-			return true;
-		return false;
+		int bar = currPlayer == Color.WHITE ? WHITEBAR : BLACKBAR;
+		return (pointsHeld[currPlayer.ordinal()] & (1 << bar)) != 0;
 	}
 
 	/**
@@ -304,42 +382,75 @@ public class Board implements Cloneable {
 	 *            current player
 	 * @return true if all at home, false otherwise
 	 */
-	private boolean isAllAtHome(Color homePlayer) {
+	public boolean isAllAtHome(Color homePlayer) {
 		// checks that no pieces of player color are outside home area
-		// home for white 19-24 inclusive
-
+		// home for white 19-24 inclusive, home for black 1-6 inclusive
 		switch (homePlayer) {
 		case WHITE:
-			for (int i = WHITEBAR; i <= 18; i++) {
-				if (colorArray[i] == Color.WHITE && amountArray[i] > 0) {
-					return false;
-				}
-			}
-			break;
-		// home for black 1-6 inclusive
+			return (pointsHeld[0] & WHITE_OUTSIDE_HOME) == 0;
 		case BLACK:
-			for (int i = BLACKBAR; i >= 7; i--) {
-				if (colorArray[i] == Color.BLACK && amountArray[i] > 0) {
-					return false;
-				}
-			}
-			break;
+			return (pointsHeld[1] & BLACK_OUTSIDE_HOME) == 0;
 		default:
-			break;
+			return true;
 		}
-		return true;
+	}
+
+	/**
+	 * Contact, race or bear off, worked out from the field masks kept up to
+	 * date on every move. Players are in contact while the furthest back
+	 * white piece is behind the furthest back black piece, bars included
+	 * 
+	 * @return class of the board
+	 */
+	public PositionClass getPositionClass() {
+		return getPositionClass(pointsHeld[0] & PLAYABLE_FIELDS,
+				pointsHeld[1] & PLAYABLE_FIELDS);
+	}
+
+	/**
+	 * Same as getPositionClass() for a packed board
+	 * 
+	 * @param position
+	 *            packed board, as from getCheckers()
+	 * @return class of the board
+	 */
+	public static PositionClass getPositionClass(byte[] position) {
+		int white = 0;
+		int black = 0;
+		for (int i = 0; i < NO_OF_PLAYABLE_FIELDS; i++) {
+			if (position[i] > 0) {
+				white |= 1 << i;
+			} else if (position[i] < 0) {
+				black |= 1 << i;
+			}
+		}
+		return getPositionClass(white, black);
+	}
+
+	private static PositionClass getPositionClass(int white, int black) {
+		// white moves up from its lowest field, black down from its highest
+		if (white != 0 && black != 0
+				&& Integer.numberOfTrailingZeros(white) < 31 - Integer
+						.numberOfLeadingZeros(black)) {
+			return PositionClass.CONTACT;
+		}
+		if ((white & WHITE_OUTSIDE_HOME) == 0
+				&& (black & BLACK_OUTSIDE_HOME) == 0) {
+			return PositionClass.BEAROFF;
+		}
+		return PositionClass.RACE;
 	}
 
 	/**
 	 * evaluates dices to find all possible move amounts from the dices
 	 */
 	public void evalDices() {
-		possibleMoves = new ArrayList<Integer>();
+		possibleMoves.clear();
 		// if no more dices left, possible moves = null, no valid moves
-		if (dices == null) {
+		if (diceCount == 0) {
 			return;
 		}
-		if (dices.length == 2) {
+		if (diceCount == 2) {
 			if (dices[0] == dices[1]) {
 				possibleMoves.add(dices[0]);
 			} else {
@@ -358,8 +469,7 @@ public class Board implements Cloneable {
 	 *            move that has been chosen from arrayList of valid moves
 	 */
 	public void move(int moveIndex) {
-		Move chosenMove = validMoves.get(moveIndex);
-		move(chosenMove);		
+		makeMove(validMoves.get(moveIndex));
 	}
 
 	public void move(Move chosenMove) {
@@ -367,74 +477,232 @@ public class Board implements Cloneable {
 		int end = chosenMove.getEndField();
 		switch (chosenMove.getMoveType()) {
 		case NORMAL:
-			// make normal move
-			amountArray[start] -= 1;
-			amountArray[end] += 1;
+		case CAPTURE:
+		case BEAROFF:
+			makeMove(chosenMove.toPacked());
+			break;
+		case UNDO:
+			changeField(start, getSide(currPlayer));
+			changeField(end, -getSide(currPlayer));
+			break;
+		default:
+			break;
+		}
+	}
 
-			// check if field is left empty
-			checkIfFieldLeftEmpty(start);
+	/**
+	 * Moves pieces and uses up the dice, caching it for the GUI undo
+	 * 
+	 * @param chosenMove
+	 *            packed NORMAL, CAPTURE or BEAROFF move
+	 */
+	private void makeMove(int chosenMove) {
+		placeMove(chosenMove);
+		useMove(PackedMove.getDiceUsed(chosenMove));
+		cacheDice(PackedMove.getDiceUsed(chosenMove));
+	}
 
-			// check if moved to empty field
-			if (colorArray[end] == Color.NONE)
-				colorArray[end] = currPlayer;
-			useMove(chosenMove.getMoveAmount());
-			break;
-		case CAPTURE:
-			amountArray[start] -= 1;
-			// amount at [end] stays same
+	/**
+	 * Makes a move in place, remembering enough to take it back with
+	 * undoMove. Unlike move(Move) dice used are not cached for the GUI undo,
+	 * so it can be used to search ahead on a single board
+	 * 
+	 * @param chosenMove
+	 *            NORMAL, CAPTURE or BEAROFF move to make
+	 */
+	public void doMove(Move chosenMove) {
+		doMove(chosenMove.toPacked());
+	}
 
-			// check if field is left empty
-			checkIfFieldLeftEmpty(start);
+	/**
+	 * Same as doMove(Move) for a move packed with PackedMove, e.g. from
+	 * getValidMoveList()
+	 * 
+	 * @param chosenMove
+	 *            packed NORMAL, CAPTURE or BEAROFF move to make
+	 */
+	public void doMove(int chosenMove) {
+		if (historySize == moveHistory.length) {
+			moveHistory = Arrays.copyOf(moveHistory, historySize * 2);
+			diceHistory = Arrays.copyOf(diceHistory, historySize * 2);
+			playerHistory = Arrays.copyOf(playerHistory, historySize * 2);
+		}
+		moveHistory[historySize] = chosenMove;
+		diceHistory[historySize] = packDices();
+		playerHistory[historySize] = currPlayer;
+		historySize++;
 
-			// change color after capturing field
-			colorArray[end] = currPlayer;
+		placeMove(chosenMove);
+		useMove(PackedMove.getDiceUsed(chosenMove));
+	}
 
+	/**
+	 * Takes back last move made with doMove, restoring checkers, dices and
+	 * current player to what they were before it
+	 * 
+	 * @throws EmptyStackException
+	 *             if there is no move to take back
+	 */
+	public void undoMove() {
+		if (historySize == 0) {
+			throw new EmptyStackException();
+		}
+		historySize--;
+		int lastMove = moveHistory[historySize];
+		currPlayer = playerHistory[historySize];
+		opponent = currPlayer == Color.WHITE ? Color.BLACK : Color.WHITE;
+
+		takeBackMove(lastMove);
+		unpackDices(diceHistory[historySize]);
+	}
+
+	/**
+	 * Packs dices left in a long to keep them in the history, 8 bits for the
+	 * count and 8 bits for each dice
+	 * 
+	 * @return packed dices
+	 */
+	private long packDices() {
+		long packed = diceCount;
+		for (int i = 0; i < diceCount; i++) {
+			packed |= (dices[i] & 0xFFL) << (8 + 8 * i);
+		}
+		return packed;
+	}
+
+	/**
+	 * Reverse of packDices
+	 * 
+	 * @param packed
+	 *            dices packed with packDices
+	 */
+	private void unpackDices(long packed) {
+		diceCount = (int) (packed & 0xFF);
+		for (int i = 0; i < diceCount; i++) {
+			dices[i] = (byte) (packed >>> (8 + 8 * i));
+		}
+	}
+
+	/**
+	 * Moves checkers on the board for a given move, dices are not touched
+	 * 
+	 * @param chosenMove
+	 *            packed NORMAL, CAPTURE or BEAROFF move
+	 */
+	private void placeMove(int chosenMove) {
+		int start = PackedMove.getStartField(chosenMove);
+		int end = PackedMove.getEndField(chosenMove);
+		int side = getSide(currPlayer);
+		switch (PackedMove.getMoveType(chosenMove)) {
+		case NORMAL:
+			// make normal move
+			changeField(start, -side);
+			changeField(end, side);
+			break;
+		case CAPTURE:
+			changeField(start, -side);
+			// opponents piece at [end] is replaced with own piece
+			changeField(end, 2 * side);
 			// capture piece
-			if (currPlayer == Color.WHITE) {
-				amountArray[BLACKBAR] += 1;
-			} else {
-				amountArray[WHITEBAR] += 1;
-			}
-			useMove(chosenMove.getMoveAmount());
+			changeField(side > 0 ? BLACKBAR : WHITEBAR, -side);
 			break;
 		case BEAROFF:
-			amountArray[start] -= 1;
-			if (currPlayer == Color.WHITE) {
-				amountArray[WHITEBEAROFF] += 1;
-			} else {
-				amountArray[BLACKBEAROFF] += 1;
-			}
-			// check if field is left empty
-			checkIfFieldLeftEmpty(start);
-			useMove(chosenMove.getBEAROFFMoveAmount());
+			changeField(start, -side);
+			changeField(end, side);
 			break;
-		case UNDO:
-			amountArray[start] += 1;
-			amountArray[end] -= 1;
-			colorArray[start] = currPlayer;
+		default:
+			break;
+		}
+	}
 
-			checkIfFieldLeftEmpty(end);
+	/**
+	 * Reverse of placeMove, also puts captured piece back from the bar
+	 * 
+	 * @param chosenMove
+	 *            packed NORMAL, CAPTURE or BEAROFF move that was made last
+	 */
+	private void takeBackMove(int chosenMove) {
+		int start = PackedMove.getStartField(chosenMove);
+		int end = PackedMove.getEndField(chosenMove);
+		int side = getSide(currPlayer);
+		switch (PackedMove.getMoveType(chosenMove)) {
+		case NORMAL:
+		case BEAROFF:
+			changeField(end, -side);
 			break;
-		default:
+		case CAPTURE:
+			// piece goes back from the bar
+			changeField(side > 0 ? BLACKBAR : WHITEBAR, side);
+			changeField(end, -2 * side);
 			break;
+		default:
+			return;
 		}
+		changeField(start, side);
 	}
 
 	/**
-	 * Method checks if field was left empty then changes color to none but
-	 * excluding blackbar, whitebar, BLACKBEAROFF, WHITEBEAROFF
+	 * Single place where amount of pieces on a field is changed
 	 * 
 	 * @param fieldID
-	 *            field to check
+	 *            field to change
+	 * @param amount
+	 *            pieces to add, positive for white and negative for black
 	 */
-	private void checkIfFieldLeftEmpty(int fieldID) {
-		if (amountArray[fieldID] == 0 && !(colorArray[fieldID] == Color.NONE)
-				&& fieldID != BLACKBAR && fieldID != WHITEBAR
-				&& fieldID != WHITEBEAROFF && fieldID != BLACKBEAROFF) {
-			colorArray[fieldID] = Color.NONE;
+	private void changeField(int fieldID, int amount) {
+		int before = checkers[fieldID];
+		int after = before + amount;
+		checkers[fieldID] = (byte) after;
+		positionKey ^= ZOBRIST_FIELDS[fieldID][before + 15]
+				^ ZOBRIST_FIELDS[fieldID][after + 15];
+
+		// a capture takes a black piece off and puts a white one on, or back
+		whitePipCount += (Math.max(after, 0) - Math.max(before, 0))
+				* WHITE_PIPS[fieldID];
+		blackPipCount += (Math.min(before, 0) - Math.min(after, 0))
+				* BLACK_PIPS[fieldID];
+
+		int bit = 1 << fieldID;
+		for (int color = 0; color < 2; color++) {
+			pointsHeld[color] &= ~bit;
+			blots[color] &= ~bit;
+			madePoints[color] &= ~bit;
+		}
+		if (after != 0) {
+			int color = after > 0 ? 0 : 1;
+			pointsHeld[color] |= bit;
+			if (after == 1 || after == -1) {
+				blots[color] |= bit;
+			} else {
+				madePoints[color] |= bit;
+			}
 		}
 	}
 
+	/**
+	 * splitmix64 finaliser, spreads bits of a counter for Zobrist keys
+	 * 
+	 * @param z
+	 *            value to mix
+	 * @return mixed value
+	 */
+	private static long mixBits(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Tells which way the player counts on the board
+	 * 
+	 * @param player
+	 *            white or black
+	 * @return 1 for white, -1 for black
+	 */
+	private static int getSide(Color player) {
+		return player == Color.WHITE ? 1 : -1;
+	}
+
 	private void cacheDice(int dice) {
 		// only cache up to a max of 4 dice
 		if (cachedDices.size() > 3)
@@ -448,145 +716,265 @@ public class Board implements Cloneable {
 	}
 
 	/**
+	 * Removes used dice from the dices left
 	 * 
 	 * @param moveAmount
+	 *            dice amount that was used
 	 */
 	private void useMove(int moveAmount) {
-		switch (dices.length) {
+		switch (diceCount) {
 		case 4:
-			dices = new int[] { dices[0], dices[0], dices[0] };
-			break;
 		case 3:
-			dices = new int[] { dices[0], dices[0] };
+			// double, one less of the first dice
+			diceCount--;
+			for (int i = 1; i < diceCount; i++) {
+				dices[i] = dices[0];
+			}
 			break;
 		case 2:
 			if (moveAmount == dices[0]) {
-				dices = new int[] { dices[1] };
-			} else {
-				dices = new int[] { dices[0] };
+				dices[0] = dices[1];
 			}
+			diceCount = 1;
 			// check 1st = amount, throw away 1, left 2
 			// check 2nd = amount, viceversa
 			// no more moves
 			break;
 		case 1:
-			dices = null;
+			diceCount = 0;
 			// no more moves
 			break;
 
 		default:
 			break;
 		}
-
-		cacheDice(moveAmount);
 	}
 
 	/**
 	 * implements rule, where if with some moves you can use more moves, you
 	 * have to use them, and other moves become invalid
 	 * 
-	 * makes a move and then checks if further moves are possible if so, counts
-	 * up their move amount and returns it. Duplicates for valid moves are
-	 * removed as the rule states that one of the best possible choices is taken
-	 * and if move will have smaller amount than there is it is counted as
-	 * invalid at recursion step 0, sums are checked against each other and the
-	 * smallest values are removed as they are invalid
-	 * 
-	 * @param passedState
-	 *            passed in state of the board to clone it and perform moves on
-	 *            it
-	 * @param currentRecStep
-	 *            to execute stuff in the end just before sums of initial valid
-	 *            moves are added up, to remove ones with least amount
-	 * @return a sum of valid move amounts
+	 * every valid move is made on this board, then the most it can be followed
+	 * up with is counted up and the move is taken back again. Moves that use
+	 * less than the best amount are removed as they are invalid
 	 */
-	private int refineValidMoves(Board passedState, int currentRecStep) {
-		Board MoveAheadBoard = new Board(passedState);
-		ArrayList<Board> furtherBoards = new ArrayList<Board>();
-
-		// Initializing array for move amounts
-		Integer[] amountUsedPerMoves = new Integer[MoveAheadBoard
-				.getValidMoves().size()];
-		for (int i = 0; i < amountUsedPerMoves.length; i++) {
-			amountUsedPerMoves[i] = 0;
+	private void refineValidMoves() {
+		if (amountUsedPerMoves.length < validMoves.size()) {
+			amountUsedPerMoves = new int[validMoves.size()];
 		}
+		int bestMove = 0;
 
 		// A player must use both numbers of a roll if this is legally possible
 		// (or all four numbers of a double).
-		for (int i = 0; i < MoveAheadBoard.getValidMoves().size(); i++) {
-			furtherBoards.add(new Board(MoveAheadBoard));
-			// getting last board and making a move for it
-			int last = furtherBoards.size() - 1;
-			amountUsedPerMoves[i] = furtherBoards.get(last).getValidMoves()
-					.get(i).getMoveAmount();
-			furtherBoards.get(last).move(i);
-			furtherBoards.get(last).searchForValidMovesNoRefining();
-
-			if (furtherBoards.get(last).hasValidMovesLeft()) {
-				amountUsedPerMoves[i] += refineValidMoves(
-						furtherBoards.get(last), currentRecStep + 1);
+		// for black player amounts are less than zero, so absolute is used
+		for (int i = 0; i < validMoves.size(); i++) {
+			int validMove = validMoves.get(i);
+			doMove(validMove);
+			amountUsedPerMoves[i] = Math.abs(PackedMove.getMoveAmount(validMove))
+					+ findMaxAmountUsable(0);
+			undoMove();
+
+			if (amountUsedPerMoves[i] > bestMove) {
+				bestMove = amountUsedPerMoves[i];
 			}
 		}
 
-		if (currentRecStep == 0) {
-			int bestMove = 0;
-			// finding best possible choice
-			// for black player amounts are less than zero, multiply them by -1
-			// check if there were any valid moves and amount used per moves has
-			// something inside
-
-			// for black player * -1
-			if (currPlayer == Color.BLACK) {
-				for (int i = 0; i < amountUsedPerMoves.length; i++) {
-					amountUsedPerMoves[i] *= -1;
-				}
-			}
-			// finding best solution
-			for (int i = 0; i < amountUsedPerMoves.length; i++) {
-				if (amountUsedPerMoves[i] > bestMove) {
-					bestMove = amountUsedPerMoves[i];
-				}
+		// if a move has smaller of dices amount used - remove it
+		int kept = 0;
+		for (int i = 0; i < validMoves.size(); i++) {
+			if (amountUsedPerMoves[i] == bestMove) {
+				validMoves.set(kept++, validMoves.get(i));
 			}
+		}
+		validMoves.truncate(kept);
+		/*
+		 * RULES When only one number can be played, the player must play that
+		 * number. Or if either number can be played but not both, the player
+		 * must play the larger one. When neither number can be used, the player
+		 * loses his turn. In the case of doubles, when all four numbers cannot
+		 * be played, the player must play as many numbers as he can.
+		 */
+	}
 
-			// if a move has smaller of dices amount used - remove it
-			// create temp array and put all the valid moves in it
-			ArrayList<Move> tempMovesList = new ArrayList<Move>();
-			for (int i = 0; i < amountUsedPerMoves.length; i++) {
-				if (amountUsedPerMoves[i] == bestMove) {
-					tempMovesList.add(validMoves.get(i));
+	/**
+	 * Finds the most dice amount that can still be used from the current
+	 * state, trying every valid move in place and taking it back afterwards
+	 * 
+	 * @param depth
+	 *            how many moves into the search, picks the move list to use
+	 * @return biggest sum of move amounts that can be played
+	 */
+	private int findMaxAmountUsable(int depth) {
+		if (diceCount == 0) {
+			return 0;
+		}
+		long searchKey = getSearchKey();
+		int stored = searchTable.get(searchKey);
+		if (stored >= 0) {
+			return stored;
+		}
+		// nothing can use more than all dices left
+		int mostPossible = 0;
+		for (int i = 0; i < diceCount; i++) {
+			mostPossible += Math.abs(dices[i]);
+		}
+
+		MoveList levelMoves = getSearchLevel(depth);
+		findValidMoves(levelMoves);
+
+		int best = 0;
+		for (int i = 0; i < levelMoves.size(); i++) {
+			int levelMove = levelMoves.get(i);
+			doMove(levelMove);
+			int used = Math.abs(PackedMove.getMoveAmount(levelMove))
+					+ findMaxAmountUsable(depth + 1);
+			undoMove();
+			if (used > best) {
+				best = used;
+				if (best == mostPossible) {
+					break;
 				}
 			}
+		}
+		searchTable.put(searchKey, best);
+		return best;
+	}
 
-			// reinitialise valid moves array with tempArray
-			validMoves = new ArrayList<Move>(tempMovesList);
+	/**
+	 * @param depth
+	 *            how many moves into the search
+	 * @return empty move list to use at that depth
+	 */
+	private MoveList getSearchLevel(int depth) {
+		while (searchLevels.size() <= depth) {
+			searchLevels.add(new MoveList());
+		}
+		MoveList levelMoves = searchLevels.get(depth);
+		levelMoves.clear();
+		return levelMoves;
+	}
 
+	/**
+	 * Key for the transposition table, Zobrist key of the board mixed with
+	 * dices left
+	 * 
+	 * @return key of board, player and dices
+	 */
+	private long getSearchKey() {
+		int first = dices[0];
+		int second = diceCount > 1 ? dices[1] : 0;
+		// two different dices can be used in any order
+		if (diceCount == 2 && Math.abs(second) < Math.abs(first)) {
+			first = second;
+			second = dices[0];
 		}
+		long diceCode = diceCount;
+		diceCode = diceCode * 32 + first + 16;
+		diceCode = diceCode * 32 + second + 16;
+		return getZobristKey() ^ mixBits(diceCode * 0x9E3779B97F4A7C15L);
+	}
 
-		int returnValue = 0;
+	/**
+	 * Picks the transposition table for a search that is about to start
+	 */
+	private void startSearch() {
+		if (transpositionTable != null) {
+			searchTable = transpositionTable;
+		} else {
+			searchTable = THREAD_TABLES.get();
+		}
+	}
 
-		// find what could be best move
-		if (currPlayer == Color.BLACK) {
-			for (int i = 0; i < amountUsedPerMoves.length; i++) {
-				if (returnValue > amountUsedPerMoves[i]) {
-					returnValue = amountUsedPerMoves[i];
+	/**
+	 * Sets a transposition table to use instead of the one of the current
+	 * thread, e.g. a bigger one. Table must not be used by two threads
+	 * 
+	 * @param table
+	 *            table to use from now on, null to go back to thread's table
+	 */
+	public void setTranspositionTable(TranspositionTable table) {
+		transpositionTable = table;
+	}
+
+	/**
+	 * Finds every distinct way to play the whole turn with the dices left.
+	 * Follows the same rules as searchForValidMoves, a play has to use as
+	 * much of the dices as possible. Plays that lead to the same board (e.g.
+	 * 13/8 8/5 and 8/5 13/8) are only kept once, in the order first found
+	 * 
+	 * @return list of plays, if nothing can be moved it holds one play without
+	 *         moves
+	 */
+	public ArrayList<Play> findValidPlays() {
+		ArrayList<Play> plays = new ArrayList<Play>();
+		startSearch();
+		int bestAmount = findMaxAmountUsable(0);
+		collectPlays(0, 0, bestAmount, new int[4], plays,
+				new HashSet<Play>());
+		return plays;
+	}
+
+	/**
+	 * Goes through all move orders on this board, adding a play for every
+	 * finished turn that uses the best amount
+	 * 
+	 * @param depth
+	 *            how many moves have been made
+	 * @param amountUsed
+	 *            sum of move amounts made so far
+	 * @param bestAmount
+	 *            sum a whole play has to reach to be valid
+	 * @param path
+	 *            moves made so far
+	 * @param plays
+	 *            list to add plays to
+	 * @param seen
+	 *            plays already added, to drop duplicate boards
+	 */
+	private void collectPlays(int depth, int amountUsed, int bestAmount,
+			int[] path, ArrayList<Play> plays, HashSet<Play> seen) {
+		MoveList levelMoves = getSearchLevel(depth);
+		findValidMoves(levelMoves);
+
+		if (levelMoves.size() == 0) {
+			if (amountUsed == bestAmount) {
+				Play play = new Play(currPlayer, Arrays.copyOf(path, depth),
+						checkers.clone(), getZobristKey());
+				if (seen.add(play)) {
+					plays.add(play);
 				}
 			}
-		} else {
-			for (int i = 0; i < amountUsedPerMoves.length; i++) {
-				if (returnValue < amountUsedPerMoves[i]) {
-					returnValue = amountUsedPerMoves[i];
-				}
+			return;
+		}
+
+		for (int i = 0; i < levelMoves.size(); i++) {
+			int levelMove = levelMoves.get(i);
+			int amountAfter = amountUsed
+					+ Math.abs(PackedMove.getMoveAmount(levelMove));
+			path[depth] = levelMove;
+			doMove(levelMove);
+			// only go on if the best amount can still be reached
+			if (amountAfter + findMaxAmountUsable(depth + 1) == bestAmount) {
+				collectPlays(depth + 1, amountAfter, bestAmount, path, plays,
+						seen);
 			}
+			undoMove();
+		}
+	}
+
+	/**
+	 * Makes all moves of a play found by findValidPlays and uses up their
+	 * dices. Moves are not kept for undoMove, so a board can play whole games
+	 * without its history growing
+	 *
+	 * @param play
+	 *            play of the current player
+	 */
+	public void playTurn(Play play) {
+		for (int move : play.getPackedMoves()) {
+			placeMove(move);
+			useMove(PackedMove.getDiceUsed(move));
 		}
-		
-		return returnValue;
-		/*
-		 * RULES When only one number can be played, the player must play that
-		 * number. Or if either number can be played but not both, the player
-		 * must play the larger one. When neither number can be used, the player
-		 * loses his turn. In the case of doubles, when all four numbers cannot
-		 * be played, the player must play as many numbers as he can.
-		 */
 	}
 
 	public Integer[] removeDuplicates(Integer[] arr) {
@@ -594,22 +982,94 @@ public class Board implements Cloneable {
 	}
 
 	public GameState checkWin() {
-		if (amountArray[26] == 15) {
+		if (checkers[WHITEBEAROFF] == 15) {
 			return GameState.WHITE_WON;
-		} else if (amountArray[27] == 15) {
+		} else if (checkers[BLACKBEAROFF] == -15) {
 			return GameState.BLACK_WON;
 		}
 		return GameState.STILL_PLAYING;
 	}
 
 	/**
-	 * Generates random boolean
+	 * Points the game is worth without the cube, from the pieces the loser
+	 * has borne off and where the rest are. Uses the field masks, so no field
+	 * is looked at one by one
+	 * 
+	 * @return 0 while still playing, 1 for a single game, 2 for a gammon when
+	 *         the loser has borne off no piece, 3 for a backgammon when the
+	 *         loser also has a piece on the bar or in the winner's home
+	 */
+	public int getGamePoints() {
+		switch (checkWin()) {
+		case WHITE_WON:
+			return getGamePoints(checkers[BLACKBEAROFF], pointsHeld[1]
+					& WHITE_HOME_AND_BLACKBAR);
+		case BLACK_WON:
+			return getGamePoints(checkers[WHITEBEAROFF], pointsHeld[0]
+					& BLACK_HOME_AND_WHITEBAR);
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Same as getGamePoints() for a packed board
+	 * 
+	 * @param position
+	 *            packed board, as from getCheckers()
+	 * @return 0 while still playing, else 1, 2 or 3
+	 */
+	public static int getGamePoints(byte[] position) {
+		boolean whiteWon = position[WHITEBEAROFF] == 15;
+		if (!whiteWon && position[BLACKBEAROFF] != -15) {
+			return 0;
+		}
+		int behind = 0;
+		for (int i = 0; i < NO_OF_PLAYABLE_FIELDS; i++) {
+			if (whiteWon ? position[i] < 0 : position[i] > 0) {
+				behind |= 1 << i;
+			}
+		}
+		return getGamePoints(
+				position[whiteWon ? BLACKBEAROFF : WHITEBEAROFF],
+				behind
+						& (whiteWon ? WHITE_HOME_AND_BLACKBAR
+								: BLACK_HOME_AND_WHITEBAR));
+	}
+
+	/**
+	 * @param loserOff
+	 *            pieces the loser has borne off, negative for black
+	 * @param loserBehind
+	 *            mask of loser pieces on the bar or in the winner's home
+	 */
+	private static int getGamePoints(int loserOff, int loserBehind) {
+		if (loserOff != 0) {
+			return 1;
+		}
+		return loserBehind != 0 ? 3 : 2;
+	}
+
+	/**
+	 * Generates random boolean, from the generator of the current thread so
+	 * nothing is created on each call
 	 * 
 	 * @return randomly returns true for white to start or black for black to
 	 *         start
 	 */
 	public boolean getWhoStarts() {
-		return new Random().nextBoolean();
+		return ThreadLocalRandom.current().nextBoolean();
+	}
+
+	/**
+	 * Same as getWhoStarts() with a given generator, e.g. a seeded one
+	 * 
+	 * @param rn
+	 *            generator to use
+	 * @return true for white to start or false for black to start
+	 */
+	public boolean getWhoStarts(RandomSource rn) {
+		return rn.nextInt(2) == 0;
 	}
 
 	/**
@@ -629,7 +1089,7 @@ public class Board implements Cloneable {
 		} else {
 			currPlayer = Color.BLACK;
 			opponent = Color.WHITE;
-			for (int i = 0; i < dices.length; i++) {
+			for (int i = 0; i < diceCount; i++) {
 				dices[i] *= (-1);
 			}
 		}
@@ -654,9 +1114,11 @@ public class Board implements Cloneable {
 	 */
 	public void setDices(int[] dices) {
 		if (dices[0] == dices[1]) {
-			this.dices = new int[] { dices[0], dices[0], dices[0], dices[0] };
+			Arrays.fill(this.dices, dices[0]);
+			diceCount = 4;
 		} else {
-			this.dices = dices;
+			System.arraycopy(dices, 0, this.dices, 0, dices.length);
+			diceCount = dices.length;
 		}
 	}
 
@@ -666,40 +1128,223 @@ public class Board implements Cloneable {
 	 * @param newDice cached dice popped from stack
 	 */
 	public void addDice(int newDice) {
-		ArrayList<Integer> diceList = new ArrayList<Integer>();
-		int dicesLength = 0;
-		if (dices != null && dices.length > 0) {
-			for (int dice : dices) {
-				diceList.add(dice);
-			}
-			dicesLength = this.dices.length;
-		}
-		
-		diceList.add(newDice);
-		this.dices = new int[dicesLength + 1];
-		for (int i = 0; i < diceList.size(); i++) {
-			this.dices[i] = diceList.get(i);
-		}
+		dices[diceCount++] = newDice;
 	}
-	
 
 	public ArrayList<Integer> getPossibleMoves() {
+		evalDices();
 		return possibleMoves;
 	}
 
+	/**
+	 * Colors of pieces on each field, built from the packed board. Bars and
+	 * bear off places always have color of their player
+	 * 
+	 * @return new array of size 28
+	 */
 	public Color[] getColorArray() {
+		Color[] colorArray = new Color[TOTAL_NO_OF_FIELDS];
+		for (int i = 0; i < TOTAL_NO_OF_FIELDS; i++) {
+			colorArray[i] = getColor(i);
+		}
 		return colorArray;
 	}
 
+	/**
+	 * Amount of pieces on each field, built from the packed board
+	 * 
+	 * @return new array of size 28
+	 */
 	public int[] getAmountArray() {
+		int[] amountArray = new int[TOTAL_NO_OF_FIELDS];
+		for (int i = 0; i < TOTAL_NO_OF_FIELDS; i++) {
+			amountArray[i] = getAmount(i);
+		}
 		return amountArray;
 	}
 
+	/**
+	 * @param fieldID
+	 *            field 0-27
+	 * @return color of pieces on the field
+	 */
+	public Color getColor(int fieldID) {
+		switch (fieldID) {
+		case WHITEBAR:
+		case WHITEBEAROFF:
+			return Color.WHITE;
+		case BLACKBAR:
+		case BLACKBEAROFF:
+			return Color.BLACK;
+		default:
+			if (checkers[fieldID] > 0)
+				return Color.WHITE;
+			if (checkers[fieldID] < 0)
+				return Color.BLACK;
+			return Color.NONE;
+		}
+	}
+
+	/**
+	 * @param fieldID
+	 *            field 0-27
+	 * @return amount of pieces on the field
+	 */
+	public int getAmount(int fieldID) {
+		return Math.abs(checkers[fieldID]);
+	}
+
+	/**
+	 * Packed board, amount of pieces on each field with white positive and
+	 * black negative
+	 * 
+	 * @return copy of the packed board, size 28
+	 */
+	public byte[] getCheckers() {
+		return checkers.clone();
+	}
+
+	/**
+	 * Sets up pieces from a packed board, dices and players are left as they
+	 * are
+	 * 
+	 * @param position
+	 *            amount of pieces on each field with white positive and black
+	 *            negative, size 28
+	 */
+	public void setCheckers(byte[] position) {
+		for (int i = 0; i < TOTAL_NO_OF_FIELDS; i++) {
+			changeField(i, position[i] - checkers[i]);
+		}
+	}
+
+	/**
+	 * Writes the PositionId key of the board, for the player to move or white
+	 * before the first turn, without creating anything
+	 * 
+	 * @param keys
+	 *            array the key is written to
+	 * @param offset
+	 *            index of the first of the PositionId.SIZE bytes
+	 */
+	public void writePositionKey(byte[] keys, int offset) {
+		PositionId.encode(checkers, getPlayerOnRoll(), keys, offset);
+	}
+
+	/**
+	 * @return PositionId of the board in its base64 text form
+	 */
+	public String getPositionId() {
+		byte[] key = new byte[PositionId.SIZE];
+		writePositionKey(key, 0);
+		return PositionId.toString(key);
+	}
+
+	/**
+	 * Sets up pieces from a PositionId, dices and players are left as they
+	 * are
+	 * 
+	 * @param id
+	 *            PositionId in base64
+	 * @param onRoll
+	 *            player to move when the id was made
+	 * @throws IllegalArgumentException
+	 *             if the id is not a board
+	 */
+	public void setPositionId(String id, Color onRoll) {
+		byte[] position = new byte[TOTAL_NO_OF_FIELDS];
+		PositionId.decode(PositionId.parse(id), 0, onRoll, position);
+		setCheckers(position);
+	}
+
+	private Color getPlayerOnRoll() {
+		return currPlayer == Color.BLACK ? Color.BLACK : Color.WHITE;
+	}
+
+	/**
+	 * @param player
+	 *            white or black
+	 * @return bit mask of fields with pieces of the player, bit N is field N
+	 */
+	public int getPointsHeld(Color player) {
+		return pointsHeld[player.ordinal()];
+	}
+
+	/**
+	 * @param player
+	 *            white or black
+	 * @return bit mask of fields with exactly one piece of the player
+	 */
+	public int getBlots(Color player) {
+		return blots[player.ordinal()];
+	}
+
+	/**
+	 * @param player
+	 *            white or black
+	 * @return bit mask of fields with two or more pieces of the player
+	 */
+	public int getMadePoints(Color player) {
+		return madePoints[player.ordinal()];
+	}
+
 	public Color getCurrentPlayer() {
 		return this.currPlayer;
 	}
 
+	/**
+	 * 64 bit Zobrist key of the board, kept up to date on every move
+	 * 
+	 * @return key of pieces on all fields and who is to move
+	 */
+	public long getZobristKey() {
+		if (currPlayer == Color.BLACK)
+			return positionKey ^ ZOBRIST_BLACK_TO_MOVE;
+		return positionKey;
+	}
+
+	/**
+	 * Boards are equal when they have same pieces on every field and same
+	 * player to move, dices and valid moves are not compared
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof Board))
+			return false;
+		Board otherBoard = (Board) other;
+		return positionKey == otherBoard.positionKey
+				&& currPlayer == otherBoard.currPlayer
+				&& Arrays.equals(checkers, otherBoard.checkers);
+	}
+
+	@Override
+	public int hashCode() {
+		long key = getZobristKey();
+		return (int) (key ^ (key >>> 32));
+	}
+
+	/**
+	 * Valid moves as Move objects, made from the packed list on every call
+	 * 
+	 * @return new list of valid moves
+	 */
 	public ArrayList<Move> getValidMoves() {
-		return this.validMoves;
+		ArrayList<Move> moves = new ArrayList<Move>(validMoves.size());
+		for (int i = 0; i < validMoves.size(); i++) {
+			moves.add(new Move(validMoves.get(i)));
+		}
+		return moves;
+	}
+
+	/**
+	 * Valid moves packed with PackedMove, without creating objects. The list
+	 * is reused by the next search
+	 * 
+	 * @return packed valid moves
+	 */
+	public MoveList getValidMoveList() {
+		return validMoves;
 	}
 }
\ No newline at end of file
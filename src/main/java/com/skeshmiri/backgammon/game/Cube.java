@@ -0,0 +1,101 @@
+package com.skeshmiri.backgammon.game;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Doubling cube. Starts in the middle at 1, where either player may
+ *          double. A player who takes a double owns the cube at twice the
+ *          value, and only the owner may double again. Doubling stops at 64
+ *          and in the Crawford game of a match
+ *
+ */
+public class Cube {
+	public static final int MAX_VALUE = 64;
+
+	private int value;
+	private Color owner;
+	private boolean crawford;
+
+	/**
+	 * Cube in the middle at 1
+	 */
+	public Cube() {
+		reset(false);
+	}
+
+	/**
+	 * Puts the cube back in the middle at 1 for a new game
+	 *
+	 * @param crawford
+	 *            true for the Crawford game, where nobody may double
+	 */
+	public void reset(boolean crawford) {
+		value = 1;
+		owner = Color.NONE;
+		this.crawford = crawford;
+	}
+
+	public int getValue() {
+		return value;
+	}
+
+	/**
+	 * @return player who owns the cube, Color.NONE while it is in the middle
+	 */
+	public Color getOwner() {
+		return owner;
+	}
+
+	public boolean isCentered() {
+		return owner == Color.NONE;
+	}
+
+	public boolean isCrawford() {
+		return crawford;
+	}
+
+	/**
+	 * @param player
+	 *            white or black
+	 * @return true if the player may offer a double before throwing
+	 */
+	public boolean mayDouble(Color player) {
+		return !crawford && value < MAX_VALUE
+				&& (owner == Color.NONE || owner == player);
+	}
+
+	/**
+	 * Double offered by one player and taken by the other
+	 *
+	 * @param taker
+	 *            player taking the double, owns the cube after it
+	 * @throws IllegalStateException
+	 *             if the other player may not double
+	 */
+	public void take(Color taker) {
+		Color doubler = taker == Color.WHITE ? Color.BLACK : Color.WHITE;
+		if (!mayDouble(doubler)) {
+			throw new IllegalStateException(doubler + " may not double");
+		}
+		value *= 2;
+		owner = taker;
+	}
+
+	/**
+	 * @param gamePoints
+	 *            points of the game without the cube, 1-3 as from
+	 *            Board.getGamePoints()
+	 * @return points the winner gets with the cube
+	 */
+	public int getPoints(int gamePoints) {
+		return gamePoints * value;
+	}
+
+	@Override
+	public String toString() {
+		return isCentered() ? "cube " + value + " centered" : "cube " + value
+				+ " owned by " + owner;
+	}
+}
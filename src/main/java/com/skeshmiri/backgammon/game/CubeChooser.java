@@ -0,0 +1,36 @@
+package com.skeshmiri.backgammon.game;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Decides on doubles for GameDriver, before the player on roll
+ *          throws. Only asked to offer when the cube allows the player to
+ *          double
+ *
+ */
+public interface CubeChooser {
+
+	/**
+	 * @param board
+	 *            board before the throw
+	 * @param player
+	 *            player on roll
+	 * @param cube
+	 *            cube before the double
+	 * @return true to offer a double
+	 */
+	boolean offerDouble(Board board, Color player, Cube cube);
+
+	/**
+	 * @param board
+	 *            board before the throw of the doubling player
+	 * @param player
+	 *            player offered the double
+	 * @param cube
+	 *            cube before the double
+	 * @return true to take, false to pass and lose the cube value
+	 */
+	boolean acceptDouble(Board board, Color player, Cube cube);
+}
@@ -1,7 +1,5 @@
 package com.skeshmiri.backgammon.game;
 
-import java.util.Random;
-
 /**
  * 
  * @author 130017964
@@ -9,14 +7,89 @@ import java.util.Random;
  * @version 5.0
  * 
  *          Used to generate pair of random dice in range (1-6 inclusive) 
+ * 
+ *          Numbers come from a RandomSource, so the generator can be swapped
+ *          and seeded. Dice made with a seed start again from it on every
+ *          startGame, so game N gets the same rolls whichever thread plays it
  */
 public class Dice {
-	private Random rn;
-	private int diceX;
-	private int diceY;
+	/**
+	 * the 21 different rolls, smaller dice first
+	 */
+	public static final int[][] DISTINCT_ROLLS = new int[21][];
+
+	static {
+		int roll = 0;
+		for (int x = 1; x <= 6; x++) {
+			for (int y = x; y <= 6; y++) {
+				DISTINCT_ROLLS[roll++] = new int[] { x, y };
+			}
+		}
+	}
+
+	/**
+	 * @param roll
+	 *            one of DISTINCT_ROLLS
+	 * @return chance of the roll, 1/36 for a double and 2/36 for others
+	 */
+	public static double getChance(int[] roll) {
+		return (roll[0] == roll[1] ? 1 : 2) / 36.0;
+	}
 
+	/**
+	 * @param roll
+	 *            two dices in any order, negative for black
+	 * @return index of the roll in DISTINCT_ROLLS
+	 */
+	public static int getRollIndex(int[] roll) {
+		int x = Math.min(Math.abs(roll[0]), Math.abs(roll[1]));
+		int y = Math.max(Math.abs(roll[0]), Math.abs(roll[1]));
+		// rolls with a smaller first dice come before
+		return (x - 1) * (14 - x) / 2 + y - x;
+	}
+
+	private RandomSource rn;
+	private long seed;
+	private boolean seeded;
+	protected int diceX;
+	protected int diceY;
+
+	/**
+	 * Dice with a different seed on every run
+	 */
 	public Dice() {
-		rn = new Random();
+		this(new SplittableRandomSource());
+	}
+
+	/**
+	 * Seeded dice using xoshiro256**
+	 * 
+	 * @param seed
+	 *            seed of the rolls, same seed throws same rolls
+	 */
+	public Dice(long seed) {
+		this(new Xoshiro256StarStar(seed), seed);
+	}
+
+	/**
+	 * @param rn
+	 *            generator to throw with, not to be shared with another thread
+	 */
+	public Dice(RandomSource rn) {
+		this.rn = rn;
+	}
+
+	/**
+	 * @param rn
+	 *            generator to throw with, not to be shared with another thread
+	 * @param seed
+	 *            seed the generator is set to again on every startGame
+	 */
+	public Dice(RandomSource rn, long seed) {
+		this.rn = rn;
+		this.seed = seed;
+		seeded = true;
+		rn.setSeed(seed);
 	}
 
 	/**
@@ -28,6 +101,27 @@ public class Dice {
 		diceY = 1 + rn.nextInt(6);
 	}
 
+	/**
+	 * Tells dice a new game starts, e.g. in a rollout. Seeded dice set the
+	 * generator to a seed made from their own seed and the game, dice without
+	 * a seed go on as they are
+	 * 
+	 * @param game
+	 *            number of the game, from 0
+	 */
+	public void startGame(long game) {
+		if (seeded) {
+			rn.setSeed(seed + game * 0x9E3779B97F4A7C15L);
+		}
+	}
+
+	/**
+	 * @return generator the dice throw with
+	 */
+	public RandomSource getRandomSource() {
+		return rn;
+	}
+
 	/**
 	 * @return array of 2 dices
 	 */
@@ -0,0 +1,225 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.ArrayList;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Plays whole games without the GUI. Does the same turn flow as
+ *          MainWindow: throw dices, set them for the player, make a play and
+ *          change player until someone has borne off all pieces. Each color
+ *          has its own MoveChooser picking the plays
+ *
+ *          When both players are bearing off with few pieces left and a bear
+ *          off database is set that knows the board, the game is not played
+ *          on: it is settled with the exact winning chance from the database
+ *
+ *          Boards and rolls found in the opening book, if one is set, are
+ *          played from the book without asking the chooser
+ *
+ *          With a Cube and a CubeChooser the player on roll may double before
+ *          throwing. A pass ends the game, a take doubles the cube and getPoints
+ *          gives what the game was worth with the cube
+ *
+ *          Not thread safe, every thread should use its own driver and dice
+ *
+ */
+public class GameDriver {
+	private MoveChooser whiteChooser;
+	private MoveChooser blackChooser;
+	private Dice dice;
+	private int turns;
+	private BearoffDatabase bearoff;
+	private PlayBook book;
+	private Cube cube;
+	private CubeChooser cubeChooser;
+	private double whiteWinningChance;
+	private int gamePoints;
+
+	/**
+	 * @param whiteChooser
+	 *            picks plays for white
+	 * @param blackChooser
+	 *            picks plays for black
+	 * @param dice
+	 *            dice thrown every turn
+	 */
+	public GameDriver(MoveChooser whiteChooser, MoveChooser blackChooser,
+			Dice dice) {
+		this.whiteChooser = whiteChooser;
+		this.blackChooser = blackChooser;
+		this.dice = dice;
+	}
+
+	/**
+	 * @param bearoff
+	 *            database to settle bear offs with, e.g.
+	 *            TwoSidedBearoff.getDefault(). Without one, or with null, every
+	 *            game is played to the end
+	 */
+	public void setBearoffDatabase(BearoffDatabase bearoff) {
+		this.bearoff = bearoff;
+	}
+
+	/**
+	 * @param book
+	 *            book of early plays, e.g. OpeningBook.getDefault(). Without
+	 *            one, or with null, the choosers pick every play
+	 */
+	public void setOpeningBook(PlayBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * @param cube
+	 *            cube the games are played with, null for none. Not reset by
+	 *            the driver, reset it with the Crawford state before each game
+	 * @param cubeChooser
+	 *            offers and answers doubles for both players, null to never
+	 *            double
+	 */
+	public void setCube(Cube cube, CubeChooser cubeChooser) {
+		this.cube = cube;
+		this.cubeChooser = cubeChooser;
+	}
+
+	/**
+	 * Plays a game from the starting board. As in the real game both players
+	 * throw one dice, higher one starts and plays both dices, doubles are
+	 * thrown again
+	 *
+	 * @return WHITE_WON or BLACK_WON, also when a double was passed,
+	 *         STILL_PLAYING if the game was settled from the bear off database
+	 */
+	public GameState playGame() {
+		Board board = new Board();
+		int[] roll;
+		do {
+			dice.throwDices();
+			roll = dice.getDices();
+		} while (roll[0] == roll[1]);
+		boolean isWhite = roll[0] > roll[1];
+
+		turns = 1;
+		playTurn(board, isWhite, roll);
+		return playOut(board, !isWhite);
+	}
+
+	/**
+	 * Plays a game on from a board, e.g. for rollouts
+	 *
+	 * @param board
+	 *            board to play on, pieces are moved on it
+	 * @param isWhite
+	 *            true if white is to throw next
+	 * @return WHITE_WON or BLACK_WON, also when a double was passed,
+	 *         STILL_PLAYING if the game was settled from the bear off database
+	 */
+	public GameState playGame(Board board, boolean isWhite) {
+		turns = 0;
+		return playOut(board, isWhite);
+	}
+
+	/**
+	 * @return turns played in the last game, including turns where nothing
+	 *         could be moved
+	 */
+	public int getTurns() {
+		return turns;
+	}
+
+	/**
+	 * @return chance white won the last game, 1 or 0 for a game played to the
+	 *         end
+	 */
+	public double getWhiteWinningChance() {
+		return whiteWinningChance;
+	}
+
+	/**
+	 * @return points the last game was worth without the cube, 1, 2 for a
+	 *         gammon or 3 for a backgammon. Games settled from the bear off
+	 *         database count 1, no gammon is left in them, and so do passed
+	 *         doubles
+	 */
+	public int getGamePoints() {
+		return gamePoints;
+	}
+
+	/**
+	 * @return points the last game was worth with the cube, getGamePoints()
+	 *         times the cube value
+	 */
+	public int getPoints() {
+		return cube == null ? gamePoints : cube.getPoints(gamePoints);
+	}
+
+	private GameState playOut(Board board, boolean isWhite) {
+		GameState state = board.checkWin();
+		while (state == GameState.STILL_PLAYING) {
+			if (bearoff != null) {
+				double chance = bearoff.getWinningChance(board,
+						isWhite ? Color.WHITE : Color.BLACK);
+				if (chance >= 0) {
+					whiteWinningChance = isWhite ? chance : 1 - chance;
+					gamePoints = 1;
+					return state;
+				}
+			}
+			if (offerDouble(board, isWhite)) {
+				whiteWinningChance = isWhite ? 1 : 0;
+				gamePoints = 1;
+				return isWhite ? GameState.WHITE_WON : GameState.BLACK_WON;
+			}
+			dice.throwDices();
+			turns++;
+			playTurn(board, isWhite, dice.getDices());
+			state = board.checkWin();
+			isWhite = !isWhite;
+		}
+		whiteWinningChance = state == GameState.WHITE_WON ? 1 : 0;
+		gamePoints = board.getGamePoints();
+		return state;
+	}
+
+	/**
+	 * Lets the player on roll double if the cube allows it
+	 *
+	 * @return true if a double was offered and passed
+	 */
+	private boolean offerDouble(Board board, boolean isWhite) {
+		Color player = isWhite ? Color.WHITE : Color.BLACK;
+		if (cube == null || cubeChooser == null || !cube.mayDouble(player)
+				|| !cubeChooser.offerDouble(board, player, cube)) {
+			return false;
+		}
+		Color taker = isWhite ? Color.BLACK : Color.WHITE;
+		if (!cubeChooser.acceptDouble(board, taker, cube)) {
+			return true;
+		}
+		cube.take(taker);
+		return false;
+	}
+
+	/**
+	 * Takes the play from the book or lets the player's chooser pick one for
+	 * the roll and makes it
+	 */
+	private void playTurn(Board board, boolean isWhite, int[] roll) {
+		board.setDices(roll);
+		board.setPlayers(isWhite);
+		ArrayList<Play> plays = board.findValidPlays();
+		// one play without moves when nothing can be moved
+		Play play = plays.size() == 1 ? plays.get(0) : null;
+		if (play == null && book != null) {
+			play = book.getPlay(board, roll, plays);
+		}
+		if (play == null) {
+			MoveChooser chooser = isWhite ? whiteChooser : blackChooser;
+			play = chooser.choosePlay(board, plays);
+		}
+		board.playTurn(play);
+	}
+}
@@ -0,0 +1,58 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.ArrayList;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Simple one look ahead player, picks the play that leaves it
+ *          furthest ahead in the pip count. Hitting counts for a lot as the
+ *          opponent piece has to start again, ties go to the play leaving
+ *          fewer own blots
+ *
+ */
+public class GreedyMoveChooser implements MoveChooser {
+
+	@Override
+	public Play choosePlay(Board board, ArrayList<Play> plays) {
+		int side = board.getCurrentPlayer() == Color.WHITE ? 1 : -1;
+		Play best = null;
+		int bestScore = Integer.MIN_VALUE;
+		for (Play play : plays) {
+			int score = score(play.getPosition(), side);
+			if (score > bestScore) {
+				bestScore = score;
+				best = play;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param position
+	 *            packed board after the play
+	 * @param side
+	 *            1 for white, -1 for black
+	 * @return pip lead times 4 minus own blots
+	 */
+	private static int score(byte[] position, int side) {
+		int whitePips = 0;
+		int blackPips = 0;
+		int ownBlots = 0;
+		for (int i = 0; i < Board.NO_OF_PLAYABLE_FIELDS; i++) {
+			int amount = position[i];
+			if (amount > 0) {
+				whitePips += amount * (Board.BLACKBAR - i);
+			} else if (amount < 0) {
+				blackPips -= amount * i;
+			}
+			if (amount == side && i != Board.WHITEBAR && i != Board.BLACKBAR) {
+				ownBlots++;
+			}
+		}
+		int lead = side > 0 ? blackPips - whitePips : whitePips - blackPips;
+		return lead * 4 - ownBlots;
+	}
+}
@@ -0,0 +1,97 @@
+package com.skeshmiri.backgammon.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Dice reading rolls from a file written by DiceFileWriter, so runs
+ *          on any machine get exactly the same luck. The file has one byte per
+ *          roll, the outcome 0-35 with first dice outcome / 6 + 1 and second
+ *          outcome % 6 + 1. The file is memory mapped and read in place, when
+ *          the end is reached rolls start again from the beginning
+ *
+ *          Many dice can share one mapped file, e.g. one per thread, as each
+ *          keeps its own place in it
+ *
+ */
+public class MappedDice extends Dice {
+	private ByteBuffer rolls;
+	private int rollsPerGame;
+	private int next;
+
+	/**
+	 * Maps a whole dice file read only
+	 * 
+	 * @param file
+	 *            file written by DiceFileWriter
+	 * @return rolls of the file, to give to MappedDice
+	 * @throws IOException
+	 *             if the file can't be read or is empty
+	 */
+	public static ByteBuffer map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			if (channel.size() == 0 || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("dice file must have 1 to "
+						+ Integer.MAX_VALUE + " rolls: " + file);
+			}
+			// mapping stays valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		}
+	}
+
+	/**
+	 * Dice reading the rolls in order, startGame is ignored
+	 * 
+	 * @param rolls
+	 *            rolls from map(), not changed
+	 */
+	public MappedDice(ByteBuffer rolls) {
+		this(rolls, 0);
+	}
+
+	/**
+	 * Dice where game N starts reading at roll N * rollsPerGame, so a game
+	 * gets the same rolls whichever thread plays it
+	 * 
+	 * @param rolls
+	 *            rolls from map(), not changed
+	 * @param rollsPerGame
+	 *            rolls kept for each game, 0 reads in order
+	 */
+	public MappedDice(ByteBuffer rolls, int rollsPerGame) {
+		// rolls come from the file, no generator is needed
+		super((RandomSource) null);
+		this.rolls = rolls;
+		this.rollsPerGame = rollsPerGame;
+	}
+
+	@Override
+	public void startGame(long game) {
+		if (rollsPerGame > 0) {
+			next = (int) (game * rollsPerGame % rolls.capacity());
+		}
+	}
+
+	@Override
+	public void throwDices() {
+		int outcome = rolls.get(next);
+		if (outcome < 0 || outcome >= 36) {
+			throw new IllegalStateException("not a dice roll at " + next
+					+ ": " + outcome);
+		}
+		if (++next == rolls.capacity()) {
+			next = 0;
+		}
+		diceX = 1 + outcome / 6;
+		diceY = 1 + outcome % 6;
+	}
+}
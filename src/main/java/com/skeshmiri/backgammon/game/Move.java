@@ -45,6 +45,23 @@ public class Move {
 		specialBearOff = actualMoveAmount;
 	}
 
+	// from a move packed with PackedMove
+	public Move(int packedMove) {
+		moveType = PackedMove.getMoveType(packedMove);
+		startField = PackedMove.getStartField(packedMove);
+		endField = PackedMove.getEndField(packedMove);
+		moveAmount = PackedMove.getMoveAmount(packedMove);
+		specialBearOff = PackedMove.getBEAROFFMoveAmount(packedMove);
+	}
+
+	/**
+	 * @return this move packed in an int, see PackedMove
+	 */
+	public int toPacked() {
+		return PackedMove.of(moveType, startField, endField, moveAmount,
+				specialBearOff);
+	}
+
 	public MoveType getMoveType() {
 		return moveType;
 	}
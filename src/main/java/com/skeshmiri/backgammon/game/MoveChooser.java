@@ -0,0 +1,25 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.ArrayList;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Picks which play to make in a turn, used by GameDriver to play
+ *          games without the GUI
+ *
+ */
+public interface MoveChooser {
+
+	/**
+	 * @param board
+	 *            board before the play, dices set for the current player.
+	 *            Must be left as it was
+	 * @param plays
+	 *            valid plays from board.findValidPlays(), never empty
+	 * @return one of the plays
+	 */
+	Play choosePlay(Board board, ArrayList<Play> plays);
+}
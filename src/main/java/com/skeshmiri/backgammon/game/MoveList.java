@@ -0,0 +1,62 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          List of moves packed with PackedMove, backed by an int array that
+ *          is reused when the list is cleared
+ *
+ */
+public class MoveList {
+	private int[] moves;
+	private int size;
+
+	public MoveList() {
+		moves = new int[32];
+	}
+
+	/**
+	 * constructor to copy a move list
+	 */
+	public MoveList(MoveList moveList) {
+		moves = moveList.moves.clone();
+		size = moveList.size;
+	}
+
+	public void add(int move) {
+		if (size == moves.length) {
+			moves = Arrays.copyOf(moves, size * 2);
+		}
+		moves[size++] = move;
+	}
+
+	public int get(int index) {
+		return moves[index];
+	}
+
+	public void set(int index, int move) {
+		moves[index] = move;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Drops moves from the end of the list
+	 * 
+	 * @param newSize
+	 *            amount of moves to keep
+	 */
+	public void truncate(int newSize) {
+		size = newSize;
+	}
+}
@@ -0,0 +1,73 @@
+package com.skeshmiri.backgammon.game;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Encodes a Move in a single int so move lists can be kept without
+ *          creating objects
+ *
+ *          bits 0-1 move type, 2-6 start field, 7-11 end field, 12-17 move
+ *          amount and 18-22 dice used for bear off. Amounts are stored with an
+ *          offset as they are negative for black
+ *
+ */
+public final class PackedMove {
+	private static final MoveType[] MOVE_TYPES = MoveType.values();
+
+	private PackedMove() {
+	}
+
+	/**
+	 * @param mt
+	 *            type of move
+	 * @param start
+	 *            field moved from
+	 * @param end
+	 *            field moved to
+	 * @param moveAmount
+	 *            amount moved
+	 * @param bearOffAmount
+	 *            dice used for a bear off move, 0 otherwise
+	 * @return move packed in an int
+	 */
+	public static int of(MoveType mt, int start, int end, int moveAmount,
+			int bearOffAmount) {
+		return mt.ordinal() | start << 2 | end << 7 | (moveAmount + 32) << 12
+				| (bearOffAmount + 16) << 18;
+	}
+
+	public static MoveType getMoveType(int move) {
+		return MOVE_TYPES[move & 0x3];
+	}
+
+	public static int getStartField(int move) {
+		return (move >>> 2) & 0x1F;
+	}
+
+	public static int getEndField(int move) {
+		return (move >>> 7) & 0x1F;
+	}
+
+	public static int getMoveAmount(int move) {
+		return ((move >>> 12) & 0x3F) - 32;
+	}
+
+	public static int getBEAROFFMoveAmount(int move) {
+		return ((move >>> 18) & 0x1F) - 16;
+	}
+
+	/**
+	 * @param move
+	 *            packed move
+	 * @return dice used up by the move, for bear off it can be bigger than
+	 *         the distance moved
+	 */
+	public static int getDiceUsed(int move) {
+		if (getMoveType(move) == MoveType.BEAROFF) {
+			return getBEAROFFMoveAmount(move);
+		}
+		return getMoveAmount(move);
+	}
+}
@@ -0,0 +1,85 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.ArrayList;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Counts plays the move generator finds, to check it stays correct
+ *          when it is made faster
+ *
+ *          From a board every one of the 21 different rolls is tried for the
+ *          player to move and every valid play is made, then the same is done
+ *          for the other player until the asked depth. Every play at the last
+ *          depth is one node. A finished game has no further nodes
+ *
+ */
+public class Perft {
+
+	private Perft() {
+	}
+
+	/**
+	 * @param board
+	 *            board to count from, pieces are left as they were
+	 * @param isWhite
+	 *            true if white is to move
+	 * @param depth
+	 *            amount of turns to play, at least 1
+	 * @return amount of plays found at the last turn
+	 */
+	public static long count(Board board, boolean isWhite, int depth) {
+		long nodes = 0;
+		for (int[] roll : Dice.DISTINCT_ROLLS) {
+			board.setDices(roll);
+			board.setPlayers(isWhite);
+			ArrayList<Play> plays = board.findValidPlays();
+			if (depth == 1) {
+				nodes += plays.size();
+				continue;
+			}
+			for (Play play : plays) {
+				int[] moves = play.getPackedMoves();
+				board.setDices(roll);
+				board.setPlayers(isWhite);
+				for (int move : moves) {
+					board.doMove(move);
+				}
+				if (board.checkWin() == GameState.STILL_PLAYING) {
+					nodes += count(board, !isWhite, depth - 1);
+				}
+				for (int i = 0; i < moves.length; i++) {
+					board.undoMove();
+				}
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Reads a board written as the player to move followed by the 28 packed
+	 * field amounts, e.g. "W 0 2 0 ... -2 0 0 0"
+	 * 
+	 * @param text
+	 *            W or B and 28 amounts, white positive and black negative
+	 * @return board set up with the pieces and player
+	 */
+	public static Board parseBoard(String text) {
+		String[] parts = text.trim().split("\\s+");
+		if (parts.length != Board.TOTAL_NO_OF_FIELDS + 1) {
+			throw new IllegalArgumentException("expected player and "
+					+ Board.TOTAL_NO_OF_FIELDS + " fields: " + text);
+		}
+		byte[] position = new byte[Board.TOTAL_NO_OF_FIELDS];
+		for (int i = 0; i < position.length; i++) {
+			position[i] = Byte.parseByte(parts[i + 1]);
+		}
+		Board board = new Board();
+		board.setCheckers(position);
+		board.setDices(Dice.DISTINCT_ROLLS[0]);
+		board.setPlayers(parts[0].equals("W"));
+		return board;
+	}
+}
@@ -0,0 +1,111 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Class stores a whole turn for Backgammon
+ *
+ *          stores moves made in order and the packed board they lead to. Two
+ *          plays are equal when they lead to the same board, no matter in
+ *          which order the moves were made
+ *
+ */
+
+public class Play {
+	private Color player;
+	private int[] moves;
+	private byte[] position;
+	private long zobristKey;
+
+	/**
+	 * constructor for Play object
+	 *
+	 * @param player
+	 *            who made the moves
+	 * @param moves
+	 *            moves packed with PackedMove in order they are made
+	 * @param position
+	 *            packed board after the moves, as from Board.getCheckers()
+	 * @param zobristKey
+	 *            key of the board after the moves, as from
+	 *            Board.getZobristKey()
+	 */
+	public Play(Color player, int[] moves, byte[] position, long zobristKey) {
+		this.player = player;
+		this.moves = moves;
+		this.position = position;
+		this.zobristKey = zobristKey;
+	}
+
+	public Color getPlayer() {
+		return player;
+	}
+
+	/**
+	 * @return moves in order they are made, made from the packed moves
+	 */
+	public Move[] getMoves() {
+		Move[] unpacked = new Move[moves.length];
+		for (int i = 0; i < moves.length; i++) {
+			unpacked[i] = new Move(moves[i]);
+		}
+		return unpacked;
+	}
+
+	/**
+	 * @return moves packed with PackedMove in order they are made
+	 */
+	public int[] getPackedMoves() {
+		return moves;
+	}
+
+	/**
+	 * @return packed board after the play, white positive and black negative
+	 */
+	public byte[] getPosition() {
+		return position;
+	}
+
+	/**
+	 * @return Zobrist key of the board after the play, player who moved still
+	 *         to move
+	 */
+	public long getZobristKey() {
+		return zobristKey;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof Play))
+			return false;
+		return Arrays.equals(position, ((Play) other).position);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (zobristKey ^ (zobristKey >>> 32));
+	}
+
+	/**
+	 * @return moves as start/end fields, e.g. "13/8 8/5"
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		for (int move : moves) {
+			if (text.length() > 0)
+				text.append(' ');
+			text.append(PackedMove.getStartField(move)).append('/')
+					.append(PackedMove.getEndField(move));
+			if (PackedMove.getMoveType(move) == MoveType.CAPTURE)
+				text.append('*');
+		}
+		return text.toString();
+	}
+}
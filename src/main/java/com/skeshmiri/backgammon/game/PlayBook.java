@@ -0,0 +1,27 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.List;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Known best plays of some boards and rolls, e.g. the opening book
+ *          in the book package. GameDriver plays from it before asking the
+ *          chooser
+ *
+ */
+public interface PlayBook {
+
+	/**
+	 * @param board
+	 *            board before the play, with the player to move set
+	 * @param roll
+	 *            dices thrown
+	 * @param plays
+	 *            plays of the roll, as from findValidPlays()
+	 * @return best play, null if the board and roll are not in the book
+	 */
+	Play getPlay(Board board, int[] roll, List<Play> plays);
+}
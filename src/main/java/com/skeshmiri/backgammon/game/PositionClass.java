@@ -0,0 +1,15 @@
+package com.skeshmiri.backgammon.game;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Kind of game a board is in. CONTACT while pieces of the two
+ *          players can still hit or block each other, RACE once they have
+ *          passed each other and BEAROFF when in a race all pieces are home
+ *
+ */
+public enum PositionClass {
+	CONTACT, RACE, BEAROFF
+}
@@ -0,0 +1,212 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Packs a board into the 10 byte key of the usual backgammon Position
+ *          ID, and into its 14 letter base64 text form
+ *
+ *          For the player on roll and then for the opponent, each point from
+ *          the player's 1 point up to the 24 point and then the bar gives as
+ *          many 1 bits as the player has pieces there followed by a 0 bit.
+ *          That is at most 15 + 25 bits per player, so 80 bits. Bit N is bit
+ *          N % 8 of byte N / 8. Pieces borne off are the ones left over
+ *
+ *          Keys are written into and read from arrays given by the caller, at
+ *          an offset so many keys can be kept in one array. Nothing is
+ *          created on the way
+ *
+ */
+public final class PositionId {
+	/**
+	 * bytes of a key
+	 */
+	public static final int SIZE = 10;
+
+	/**
+	 * letters of the text form, base64 without padding
+	 */
+	public static final int LENGTH = 14;
+
+	private static final int PIECES = 15;
+	private static final int POINTS = 25;
+
+	private PositionId() {
+	}
+
+	/**
+	 * @param position
+	 *            packed board, as from Board.getCheckers()
+	 * @param onRoll
+	 *            player to move, white or black
+	 * @param keys
+	 *            array the key is written to
+	 * @param offset
+	 *            index of the first of the SIZE bytes of the key
+	 */
+	public static void encode(byte[] position, Color onRoll, byte[] keys,
+			int offset) {
+		Arrays.fill(keys, offset, offset + SIZE, (byte) 0);
+		int bit = encodePlayer(position, onRoll, keys, offset, 0);
+		encodePlayer(position, getOpponent(onRoll), keys, offset, bit);
+	}
+
+	/**
+	 * @param position
+	 *            packed board, as from Board.getCheckers()
+	 * @param onRoll
+	 *            player to move, white or black
+	 * @return new key of SIZE bytes
+	 */
+	public static byte[] encode(byte[] position, Color onRoll) {
+		byte[] key = new byte[SIZE];
+		encode(position, onRoll, key, 0);
+		return key;
+	}
+
+	/**
+	 * Unpacks a key into a packed board, every field is written
+	 *
+	 * @param keys
+	 *            array holding the key
+	 * @param offset
+	 *            index of the first byte of the key
+	 * @param onRoll
+	 *            player to move when the key was made
+	 * @param position
+	 *            packed board of size 28 to fill, can go to
+	 *            Board.setCheckers()
+	 * @throws IllegalArgumentException
+	 *             if a player has more than 15 pieces in the key or both
+	 *             players have pieces on one field
+	 */
+	public static void decode(byte[] keys, int offset, Color onRoll,
+			byte[] position) {
+		Arrays.fill(position, 0, Board.TOTAL_NO_OF_FIELDS, (byte) 0);
+		int bit = decodePlayer(keys, offset, 0, onRoll, position);
+		decodePlayer(keys, offset, bit, getOpponent(onRoll), position);
+	}
+
+	/**
+	 * @param key
+	 *            key of SIZE bytes
+	 * @param onRoll
+	 *            player to move when the key was made
+	 * @return new packed board of size 28
+	 * @throws IllegalArgumentException
+	 *             if the key is not a board, see decode above
+	 */
+	public static byte[] decode(byte[] key, Color onRoll) {
+		byte[] position = new byte[Board.TOTAL_NO_OF_FIELDS];
+		decode(key, 0, onRoll, position);
+		return position;
+	}
+
+	/**
+	 * @param key
+	 *            key of SIZE bytes
+	 * @return key in base64 without padding, LENGTH letters
+	 */
+	public static String toString(byte[] key) {
+		return Base64.getEncoder().withoutPadding().encodeToString(key);
+	}
+
+	/**
+	 * @param id
+	 *            key in base64, as from toString
+	 * @return key of SIZE bytes
+	 * @throws IllegalArgumentException
+	 *             if the text is not base64 of SIZE bytes
+	 */
+	public static byte[] parse(String id) {
+		byte[] key = Base64.getDecoder().decode(id.trim());
+		if (key.length != SIZE) {
+			throw new IllegalArgumentException("not a position id: " + id);
+		}
+		return key;
+	}
+
+	/**
+	 * @return index of the bit after the last 0 bit of the player
+	 */
+	private static int encodePlayer(byte[] position, Color player, byte[] keys,
+			int offset, int bit) {
+		for (int point = 1; point <= POINTS; point++) {
+			int pieces = getPieces(position, player, point);
+			for (int i = 0; i < pieces; i++, bit++) {
+				keys[offset + (bit >>> 3)] |= 1 << (bit & 7);
+			}
+			bit++;
+		}
+		return bit;
+	}
+
+	/**
+	 * @return index of the bit after the last 0 bit of the player
+	 */
+	private static int decodePlayer(byte[] keys, int offset, int bit,
+			Color player, byte[] position) {
+		int total = 0;
+		int pieces = 0;
+		int point = 1;
+		while (point <= POINTS) {
+			if (bit >= SIZE * 8) {
+				throw new IllegalArgumentException("position id too long");
+			}
+			if ((keys[offset + (bit >>> 3)] & 1 << (bit & 7)) != 0) {
+				pieces++;
+			} else {
+				setPieces(position, player, point, pieces);
+				total += pieces;
+				pieces = 0;
+				point++;
+			}
+			bit++;
+		}
+		if (total > PIECES) {
+			throw new IllegalArgumentException(total + " pieces of " + player
+					+ " in position id");
+		}
+		int off = PIECES - total;
+		if (player == Color.WHITE) {
+			position[Board.WHITEBEAROFF] = (byte) off;
+		} else {
+			position[Board.BLACKBEAROFF] = (byte) -off;
+		}
+		return bit;
+	}
+
+	/**
+	 * @param point
+	 *            point of the player 1-24, 25 for the bar
+	 * @return pieces of the player on the point
+	 */
+	private static int getPieces(byte[] position, Color player, int point) {
+		if (player == Color.WHITE) {
+			return Math.max(position[Board.BLACKBAR - point], 0);
+		}
+		return Math.max(-position[point], 0);
+	}
+
+	private static void setPieces(byte[] position, Color player, int point,
+			int pieces) {
+		if (pieces == 0) {
+			return;
+		}
+		int field = player == Color.WHITE ? Board.BLACKBAR - point : point;
+		if (position[field] != 0) {
+			throw new IllegalArgumentException("field " + field
+					+ " held by both players in position id");
+		}
+		position[field] = (byte) (player == Color.WHITE ? pieces : -pieces);
+	}
+
+	private static Color getOpponent(Color player) {
+		return player == Color.WHITE ? Color.BLACK : Color.WHITE;
+	}
+}
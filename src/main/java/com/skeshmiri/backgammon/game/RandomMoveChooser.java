@@ -0,0 +1,33 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Picks any valid play with the same chance
+ *
+ */
+public class RandomMoveChooser implements MoveChooser {
+	private Random rn;
+
+	/**
+	 * @param seed
+	 *            seed of the random generator, same seed picks same plays
+	 */
+	public RandomMoveChooser(long seed) {
+		rn = new Random(seed);
+	}
+
+	public RandomMoveChooser() {
+		rn = new Random();
+	}
+
+	@Override
+	public Play choosePlay(Board board, ArrayList<Play> plays) {
+		return plays.get(rn.nextInt(plays.size()));
+	}
+}
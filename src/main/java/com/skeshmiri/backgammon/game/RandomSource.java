@@ -0,0 +1,36 @@
+package com.skeshmiri.backgammon.game;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Random number generator used by Dice, so the generator can be
+ *          picked and seeded from outside. Implementations are not thread
+ *          safe, every thread should have its own, e.g. from split()
+ *
+ */
+public interface RandomSource {
+
+	/**
+	 * @param bound
+	 *            upper bound, more than 0
+	 * @return random number from 0 to bound - 1, every one with the same
+	 *         chance
+	 */
+	int nextInt(int bound);
+
+	/**
+	 * Starts the generator again, same seed gives same numbers
+	 * 
+	 * @param seed
+	 *            any value
+	 */
+	void setSeed(long seed);
+
+	/**
+	 * @return new generator with numbers independent of this one, for
+	 *         another thread
+	 */
+	RandomSource split();
+}
@@ -0,0 +1,107 @@
+package com.skeshmiri.backgammon.game;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Dice for rollouts that need fewer games for the same accuracy
+ *
+ *          Games are numbered with startGame. Games come in pairs, the second
+ *          game of a pair is mirrored: rolls of turns 1 and 2, 3 and 4 and
+ *          so on are swapped, so each player gets the rolls the other player
+ *          had and luck in one game is balanced in the other.
+ *          Pair numbers are written in base 36 and the digits up to t pick
+ *          the roll of turn t through a shuffled table of the 36 outcomes. So
+ *          every one of the first turns goes through all 36 outcomes every 36
+ *          pairs, the first two rolls through all 1296 pairs of outcomes every
+ *          1296 pairs and so on. After the first few turns rolls are random
+ *          again, seeded by the pair so both games of a pair stay mirrored
+ *
+ */
+public class RolloutDice extends Dice {
+	private static final int OUTCOMES = 36;
+
+	private int[][] outcomeTables;
+	private long seed;
+	private RandomSource rn;
+	private long pair;
+	private boolean mirrored;
+	private int turn;
+	private int swappedOutcome;
+
+	/**
+	 * @param seed
+	 *            seed for the shuffled tables and the later random rolls
+	 * @param stratifiedTurns
+	 *            turns of each game that are spread evenly, 1 spreads only the
+	 *            first roll. More turns only helps when the rollout has more
+	 *            than 36 to the power of turns - 1 pairs of games
+	 */
+	public RolloutDice(long seed, int stratifiedTurns) {
+		super(new Xoshiro256StarStar(seed));
+		this.seed = seed;
+		rn = getRandomSource();
+		outcomeTables = new int[stratifiedTurns][OUTCOMES];
+		for (int[] table : outcomeTables) {
+			for (int i = 0; i < OUTCOMES; i++) {
+				table[i] = i;
+			}
+			for (int i = OUTCOMES - 1; i > 0; i--) {
+				int j = rn.nextInt(i + 1);
+				int swap = table[i];
+				table[i] = table[j];
+				table[j] = swap;
+			}
+		}
+		startGame(0);
+	}
+
+	@Override
+	public void startGame(long game) {
+		pair = game / 2;
+		mirrored = game % 2 == 1;
+		turn = 0;
+		rn.setSeed(seed ^ (pair * 0x9E3779B97F4A7C15L));
+	}
+
+	@Override
+	public void throwDices() {
+		int outcome;
+		if (!mirrored) {
+			outcome = getOutcome(turn);
+		} else if (turn % 2 == 0) {
+			// rolls of two turns are swapped, so each player gets the rolls
+			// the other player had in the first game
+			swappedOutcome = getOutcome(turn);
+			outcome = getOutcome(turn + 1);
+		} else {
+			outcome = swappedOutcome;
+		}
+		turn++;
+
+		diceX = 1 + outcome / 6;
+		diceY = 1 + outcome % 6;
+	}
+
+	/**
+	 * @param turn
+	 *            turn of the game, turns after the spread out ones have to be
+	 *            asked for in order
+	 * @return outcome 0-35 of the turn in the first game of the pair
+	 */
+	private int getOutcome(int turn) {
+		if (turn >= outcomeTables.length) {
+			return rn.nextInt(OUTCOMES);
+		}
+		// digits of earlier turns are mixed in, so turn t is spread over the
+		// first 36 pairs already and not only every 36^t pairs
+		long digits = pair;
+		int index = 0;
+		for (int i = 0; i <= turn; i++) {
+			index = (index * 5 + (int) (digits % OUTCOMES)) % OUTCOMES;
+			digits /= OUTCOMES;
+		}
+		return outcomeTables[turn][index];
+	}
+}
@@ -0,0 +1,46 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.SplittableRandom;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          RandomSource backed by java.util.SplittableRandom, which unlike
+ *          Random doesn't synchronise on every number
+ *
+ */
+public class SplittableRandomSource implements RandomSource {
+	private SplittableRandom rn;
+
+	/**
+	 * Generator with a seed different on every run
+	 */
+	public SplittableRandomSource() {
+		rn = new SplittableRandom();
+	}
+
+	public SplittableRandomSource(long seed) {
+		rn = new SplittableRandom(seed);
+	}
+
+	private SplittableRandomSource(SplittableRandom rn) {
+		this.rn = rn;
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return rn.nextInt(bound);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		rn = new SplittableRandom(seed);
+	}
+
+	@Override
+	public RandomSource split() {
+		return new SplittableRandomSource(rn.split());
+	}
+}
@@ -0,0 +1,73 @@
+package com.skeshmiri.backgammon.game;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          Fixed size table remembering results of the valid move search
+ *
+ *          Stores the most dice amount that can be used from a board with
+ *          given dices left, keyed by a 64 bit key. Every entry is packed in
+ *          one long: top 56 bits of the key to check it and the amount in the
+ *          lowest 8 bits. A new entry always replaces whatever was in its slot,
+ *          so the table never grows.
+ *
+ *          Not thread safe, every thread should use its own table
+ *
+ */
+public class TranspositionTable {
+	private static final long AMOUNT_MASK = 0xFFL;
+
+	private long[] entries;
+	private int indexMask;
+
+	/**
+	 * @param sizeBits
+	 *            table holds 2 to the power of sizeBits entries
+	 */
+	public TranspositionTable(int sizeBits) {
+		entries = new long[1 << sizeBits];
+		indexMask = entries.length - 1;
+	}
+
+	/**
+	 * @param key
+	 *            key of board and dices
+	 * @return stored amount or -1 if it is not in the table
+	 */
+	public int get(long key) {
+		long entry = entries[getIndex(key)];
+		if (entry != 0 && (entry & ~AMOUNT_MASK) == (key & ~AMOUNT_MASK)) {
+			return (int) (entry & AMOUNT_MASK);
+		}
+		return -1;
+	}
+
+	/**
+	 * @param key
+	 *            key of board and dices
+	 * @param amount
+	 *            most dice amount usable, 0-255
+	 */
+	public void put(long key, int amount) {
+		entries[getIndex(key)] = (key & ~AMOUNT_MASK) | amount;
+	}
+
+	/**
+	 * Empties the table
+	 */
+	public void clear() {
+		Arrays.fill(entries, 0);
+	}
+
+	public int getSize() {
+		return entries.length;
+	}
+
+	private int getIndex(long key) {
+		return (int) (key >>> 8) & indexMask;
+	}
+}
@@ -0,0 +1,115 @@
+package com.skeshmiri.backgammon.game;
+
+/**
+ *
+ * @author Sam Keshmiri
+ * @version 5.00
+ *
+ *          xoshiro256** generator by Blackman and Vigna. 256 bits of state,
+ *          a few shifts and xors per number and no allocation, seeds are
+ *          spread over the state with splitmix64
+ *
+ *          split() jumps this generator 2^128 numbers ahead and gives the
+ *          numbers skipped to the new generator, so streams never overlap
+ *
+ */
+public class Xoshiro256StarStar implements RandomSource {
+	private static final long[] JUMP = { 0x180ec6d33cfd0abaL,
+			0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL };
+
+	private long s0;
+	private long s1;
+	private long s2;
+	private long s3;
+
+	public Xoshiro256StarStar(long seed) {
+		setSeed(seed);
+	}
+
+	/**
+	 * @param s0
+	 *            first word of the state, state must not be all zero
+	 */
+	Xoshiro256StarStar(long s0, long s1, long s2, long s3) {
+		this.s0 = s0;
+		this.s1 = s1;
+		this.s2 = s2;
+		this.s3 = s3;
+	}
+
+	/**
+	 * @return next 64 random bits
+	 */
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	/**
+	 * Lemire's multiply and shift, numbers that would make some results more
+	 * likely are thrown away
+	 */
+	@Override
+	public int nextInt(int bound) {
+		long product = (nextLong() >>> 32) * bound;
+		long low = product & 0xFFFFFFFFL;
+		if (low < bound) {
+			long threshold = (0x100000000L - bound) % bound;
+			while (low < threshold) {
+				product = (nextLong() >>> 32) * bound;
+				low = product & 0xFFFFFFFFL;
+			}
+		}
+		return (int) (product >>> 32);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		s0 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s1 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s2 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s3 = splitMix(seed + 0x9E3779B97F4A7C15L);
+	}
+
+	@Override
+	public RandomSource split() {
+		Xoshiro256StarStar other = new Xoshiro256StarStar(s0, s1, s2, s3);
+		jump();
+		return other;
+	}
+
+	/**
+	 * Same as 2^128 calls of nextLong
+	 */
+	private void jump() {
+		long j0 = 0, j1 = 0, j2 = 0, j3 = 0;
+		for (long jump : JUMP) {
+			for (int b = 0; b < 64; b++) {
+				if ((jump & 1L << b) != 0) {
+					j0 ^= s0;
+					j1 ^= s1;
+					j2 ^= s2;
+					j3 ^= s3;
+				}
+				nextLong();
+			}
+		}
+		s0 = j0;
+		s1 = j1;
+		s2 = j2;
+		s3 = j3;
+	}
+
+	private static long splitMix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -1,9 +1,14 @@
 package com.skeshmiri.backgammon.gui;
 
+import com.skeshmiri.backgammon.bearoff.TwoSidedBearoff;
+import com.skeshmiri.backgammon.book.OpeningBook;
 import com.skeshmiri.backgammon.game.Board;
 import com.skeshmiri.backgammon.game.Dice;
 import com.skeshmiri.backgammon.game.GameState;
 import com.skeshmiri.backgammon.game.Move;
+import com.skeshmiri.backgammon.game.MoveType;
+import com.skeshmiri.backgammon.game.PackedMove;
+import com.skeshmiri.backgammon.game.Play;
 
 import java.awt.Font; 
 import java.awt.Color;
@@ -93,7 +98,7 @@ public class MainWindow extends JFrame implements ActionListener,
 	private JLabel background;
 	private JMenuBar menuBar;
 	private JMenu menuGameTitle, aboutGameTitle;
-	private JMenuItem newGame, exit, help, undoButton;
+	private JMenuItem newGame, exit, help, undoButton, hint;
 	private JLabel[] stones;
 	private Dimension preferredSize;
 
@@ -288,6 +293,11 @@ public class MainWindow extends JFrame implements ActionListener,
 		undoButton.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, ActionEvent.CTRL_MASK));
 		menuGameTitle.add(undoButton);
 
+		hint = new JMenuItem("Hint");
+		hint.addActionListener(this);
+		hint.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_I, ActionEvent.CTRL_MASK));
+		menuGameTitle.add(hint);
+
 
 		aboutGameTitle = new JMenu("About");
 
@@ -562,7 +572,8 @@ public class MainWindow extends JFrame implements ActionListener,
 						+ "+ Show available die\n"
 						+ "+ End turn\n"
 						+ "+ Roll dice\n"
-						+ "+ Undo moves during turn", "INFO",
+						+ "+ Undo moves during turn\n"
+						+ "+ Opening book and bear off hints", "INFO",
 						JOptionPane.INFORMATION_MESSAGE, new ImageIcon(
 								ResourceLoader.getPathOf("img/rules.gif")));
 		}
@@ -582,6 +593,68 @@ public class MainWindow extends JFrame implements ActionListener,
 			// Undo last move
 			undoMove();
 		}
+
+		if (e.getSource() == hint) {
+			showHint();
+		}
+	}
+
+	/**
+	 * Shows the best play for the roll, from the two sided bear off database
+	 * when it knows the board and else from the opening book. Only before
+	 * the first move of a turn as both know whole plays
+	 */
+	private void showHint() {
+		if (board == null || !board.isDicesLeft() || !undoStack.isEmpty()) {
+			JOptionPane.showMessageDialog(this, "Hints are given after rolling, before moving");
+			return;
+		}
+		// searching for plays on a copy keeps the valid moves shown
+		Board turn = new Board(board);
+		ArrayList<Play> plays = turn.findValidPlays();
+		TwoSidedBearoff bearoff = TwoSidedBearoff.getDefault();
+		Play play = bearoff == null ? null : bearoff.getBestPlay(plays);
+		if (play != null) {
+			JOptionPane.showMessageDialog(this, String.format(
+					"Bear off play: %s, wins %.1f%%", describe(play),
+					100 * bearoff.getWinningChance(play)));
+			return;
+		}
+
+		OpeningBook book = OpeningBook.getDefault();
+		if (book == null) {
+			JOptionPane.showMessageDialog(this, "No opening book found");
+			return;
+		}
+		play = book.getPlay(turn, dice.getDices(), plays);
+		if (play == null) {
+			JOptionPane.showMessageDialog(this, "No book play for this board and roll");
+		} else {
+			JOptionPane.showMessageDialog(this, "Book play: " + describe(play));
+		}
+	}
+
+	/**
+	 * @return moves of the play as points of the player who makes it, e.g.
+	 *         "8/5 6/5"
+	 */
+	private static String describe(Play play) {
+		boolean isWhite = play.getPlayer() == com.skeshmiri.backgammon.game.Color.WHITE;
+		StringBuilder text = new StringBuilder();
+		for (int move : play.getPackedMoves()) {
+			int start = PackedMove.getStartField(move);
+			int end = PackedMove.getEndField(move);
+			if (text.length() > 0)
+				text.append(' ');
+			text.append(start == Board.WHITEBAR || start == Board.BLACKBAR ? "bar"
+					: String.valueOf(isWhite ? Board.BLACKBAR - start : start));
+			text.append('/');
+			text.append(PackedMove.getMoveType(move) == MoveType.BEAROFF ? "off"
+					: String.valueOf(isWhite ? Board.BLACKBAR - end : end));
+			if (PackedMove.getMoveType(move) == MoveType.CAPTURE)
+				text.append('*');
+		}
+		return text.toString();
 	}
 
 	@Override
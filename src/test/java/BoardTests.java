@@ -1,9 +1,38 @@
 package com.skeshmiri.backgammon.game;
 
 import static org.junit.Assert.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 
 import org.junit.Test;
+import com.skeshmiri.backgammon.bearoff.BearoffIndex;
+import com.skeshmiri.backgammon.bearoff.OneSidedBearoff;
+import com.skeshmiri.backgammon.bearoff.OneSidedBearoffGenerator;
+import com.skeshmiri.backgammon.bearoff.TwoSidedBearoff;
+import com.skeshmiri.backgammon.bearoff.TwoSidedBearoffGenerator;
+import com.skeshmiri.backgammon.book.OpeningBook;
+import com.skeshmiri.backgammon.book.OpeningBookGenerator;
+import com.skeshmiri.backgammon.engine.ClassifyingEvaluator;
+import com.skeshmiri.backgammon.engine.CubeDecision;
+import com.skeshmiri.backgammon.engine.Evaluator;
+import com.skeshmiri.backgammon.engine.EvaluatorCubeChooser;
+import com.skeshmiri.backgammon.engine.EvaluatorMoveChooser;
+import com.skeshmiri.backgammon.engine.MatchEquityTable;
+import com.skeshmiri.backgammon.engine.NeuralNetEvaluator;
+import com.skeshmiri.backgammon.engine.PlayFilter;
+import com.skeshmiri.backgammon.engine.PlayRanker;
+import com.skeshmiri.backgammon.engine.RaceEvaluator;
+import com.skeshmiri.backgammon.engine.Rollout;
+import com.skeshmiri.backgammon.engine.RolloutResult;
+import com.skeshmiri.backgammon.engine.ScoredPlay;
+import com.skeshmiri.backgammon.engine.TwoPlySearch;
 import com.skeshmiri.backgammon.game.Board;
 import com.skeshmiri.backgammon.game.Move;
 import com.skeshmiri.backgammon.game.MoveType;
@@ -85,6 +114,740 @@ public class BoardTests {
         board.move(board.getValidMoves().get(0));
 
         assertEquals(143, board.countBlack());
-    }   
+    }
+
+    @Test
+    public void testDoMoveUndoMoveRestoresBoard() {
+        Board board = new Board();
+        board.setDices(new int[] { 5, 5 });
+        board.setPlayers(false);
+        board.searchForValidMoves();
+        int[] amountsBefore = board.getAmountArray().clone();
+        Color[] colorsBefore = board.getColorArray().clone();
+        int[] dicesBefore = board.getDices();
+
+        for (int i = 0; i < 4; i++) {
+            board.searchForValidMoves();
+            board.doMove(board.getValidMoves().get(0));
+        }
+        assertNull(board.getDices());
+
+        for (int i = 0; i < 4; i++) {
+            board.undoMove();
+        }
+        assertArrayEquals(amountsBefore, board.getAmountArray());
+        assertArrayEquals(colorsBefore, board.getColorArray());
+        assertArrayEquals(dicesBefore, board.getDices());
+        assertEquals(Color.BLACK, board.getCurrentPlayer());
+    }
+
+    @Test
+    public void testUndoMoveReturnsCapturedPiece() {
+        Board board = new Board();
+        board.setDices(new int[] { 1, 2 });
+        board.setPlayers(true);
+        board.searchForValidMoves();
+        // white 1 -> 2, black 6 -> 4 leaves a blot to hit from 1
+        board.move(board.getValidMoves().get(0));
+        board.setDices(new int[] { 2, 3 });
+        board.setPlayers(false);
+        board.doMove(new Move(MoveType.NORMAL, 6, -2));
+        board.setDices(new int[] { 3, 5 });
+        board.setPlayers(true);
+        int[] amountsBefore = board.getAmountArray().clone();
+        Color[] colorsBefore = board.getColorArray().clone();
+
+        board.doMove(new Move(MoveType.CAPTURE, 1, 3));
+        assertEquals(1, board.getAmountArray()[Board.BLACKBAR]);
+        board.undoMove();
+
+        assertArrayEquals(amountsBefore, board.getAmountArray());
+        assertArrayEquals(colorsBefore, board.getColorArray());
+    }
+
+    @Test
+    public void testFindValidPlaysOpening() {
+        Board board = new Board();
+        board.setDices(new int[] { 2, 1 });
+        board.setPlayers(true);
+        ArrayList<Play> plays = board.findValidPlays();
+        assertEquals(15, plays.size());
+        for (Play play : plays) {
+            assertEquals(2, play.getMoves().length);
+        }
+        // board is left as it was
+        assertEquals(167, board.countWhite());
+        assertArrayEquals(new int[] { 2, 1 }, board.getDices());
+    }
+
+    @Test
+    public void testFindValidPlaysRemovesDuplicates() {
+        Board board = new Board();
+        board.setDices(new int[] { 5, 5 });
+        board.setPlayers(false);
+        ArrayList<Play> plays = board.findValidPlays();
+        assertEquals(4, plays.size());
+        for (int i = 0; i < plays.size(); i++) {
+            for (int j = i + 1; j < plays.size(); j++) {
+                assertFalse(plays.get(i).equals(plays.get(j)));
+            }
+        }
+    }
+
+    @Test
+    public void testZobristKeyFollowsMoves() {
+        Board board = new Board();
+        board.setDices(new int[] { 5, 3 });
+        board.setPlayers(true);
+        long startKey = board.getZobristKey();
+
+        // same board reached in two move orders gets the same key
+        board.doMove(new Move(MoveType.NORMAL, 12, 5));
+        board.doMove(new Move(MoveType.NORMAL, 17, 3));
+        long keyOneWay = board.getZobristKey();
+        board.undoMove();
+        board.undoMove();
+        assertEquals(startKey, board.getZobristKey());
+        board.doMove(new Move(MoveType.NORMAL, 17, 3));
+        board.doMove(new Move(MoveType.NORMAL, 12, 5));
+        assertEquals(keyOneWay, board.getZobristKey());
+
+        // key is the same as for a board set up from scratch
+        Board sameBoard = new Board();
+        sameBoard.setDices(new int[] { 1, 2 });
+        sameBoard.setPlayers(true);
+        sameBoard.setCheckers(board.getCheckers());
+        assertEquals(keyOneWay, sameBoard.getZobristKey());
+        assertEquals(board, sameBoard);
+        assertEquals(board.hashCode(), sameBoard.hashCode());
+
+        sameBoard.setPlayers(false);
+        assertNotEquals(keyOneWay, sameBoard.getZobristKey());
+    }
+
+    @Test
+    public void testSearchWithSmallTranspositionTable() {
+        Board board = new Board();
+        board.setDices(new int[] { 3, 3 });
+        board.setPlayers(true);
+        int playsWithDefaultTable = board.findValidPlays().size();
+
+        // a table with 2 entries keeps replacing results but must agree
+        board.setTranspositionTable(new TranspositionTable(1));
+        assertEquals(playsWithDefaultTable, board.findValidPlays().size());
+        board.searchForValidMoves();
+        assertEquals(73, playsWithDefaultTable);
+        assertTrue(board.hasValidMovesLeft());
+    }
+
+    @Test
+    public void testPackedValidMovesMatchMoveObjects() {
+        Board board = new Board();
+        board.setDices(new int[] { 6, 4 });
+        board.setPlayers(false);
+        board.searchForValidMoves();
+        MoveList packedMoves = board.getValidMoveList();
+        ArrayList<Move> moves = board.getValidMoves();
+        assertEquals(moves.size(), packedMoves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            assertEquals(packedMoves.get(i), move.toPacked());
+            assertEquals(move.getStartField(), PackedMove.getStartField(packedMoves.get(i)));
+            assertEquals(move.getEndField(), PackedMove.getEndField(packedMoves.get(i)));
+            assertEquals(move.getMoveAmount(), PackedMove.getMoveAmount(packedMoves.get(i)));
+        }
+
+        int bearOff = PackedMove.of(MoveType.BEAROFF, 3, Board.BLACKBEAROFF, -3, -5);
+        Move bearOffMove = new Move(bearOff);
+        assertEquals(MoveType.BEAROFF, bearOffMove.getMoveType());
+        assertEquals(-5, bearOffMove.getBEAROFFMoveAmount());
+        assertEquals(bearOff, bearOffMove.toPacked());
+    }
+
+    @Test
+    public void testPipCountsAfterCaptureAndBearOff() {
+        Board board = new Board();
+        byte[] position = new byte[Board.TOTAL_NO_OF_FIELDS];
+        position[20] = 1;
+        position[24] = 1;
+        position[Board.WHITEBEAROFF] = 13;
+        position[22] = -1;
+        position[3] = -2;
+        position[Board.BLACKBEAROFF] = -12;
+        board.setCheckers(position);
+        assertEquals(5 + 1, board.countWhite());
+        assertEquals(22 + 6, board.countBlack());
+
+        board.setDices(new int[] { 2, 1 });
+        board.setPlayers(true);
+        board.doMove(new Move(MoveType.CAPTURE, 20, 2));
+        assertEquals(3 + 1, board.countWhite());
+        assertEquals(25 + 6, board.countBlack());
+        board.doMove(new Move(MoveType.BEAROFF, 24, 1, Board.WHITEBEAROFF, 1));
+        assertEquals(3, board.countWhite());
+
+        board.undoMove();
+        board.undoMove();
+        assertEquals(6, board.countWhite());
+        assertEquals(28, board.countBlack());
+    }
+
+    @Test
+    public void testOccupancyMasks() {
+        Board board = new Board();
+        assertEquals(1 << 1 | 1 << 12 | 1 << 17 | 1 << 19, board.getPointsHeld(Color.WHITE));
+        assertEquals(board.getPointsHeld(Color.WHITE), board.getMadePoints(Color.WHITE));
+        assertEquals(0, board.getBlots(Color.BLACK));
+        assertFalse(board.isAllAtHome(Color.WHITE));
+
+        // black 6 -> 4 leaves a blot, white 1 -> 4 hits it
+        board.setDices(new int[] { 2, 3 });
+        board.setPlayers(false);
+        board.doMove(new Move(MoveType.NORMAL, 6, -2));
+        assertEquals(1 << 4, board.getBlots(Color.BLACK));
+        board.setDices(new int[] { 3, 5 });
+        board.setPlayers(true);
+        board.doMove(new Move(MoveType.CAPTURE, 1, 3));
+        // captured piece is now alone on the bar
+        assertEquals(1 << Board.BLACKBAR, board.getBlots(Color.BLACK));
+        assertEquals(1 << 1 | 1 << 4, board.getBlots(Color.WHITE));
+        assertFalse(board.isAllAtHome(Color.BLACK));
+    }
+
+    @Test
+    public void testPerftMatchesGoldenCounts() throws IOException {
+        Map<String, Board> boards = new HashMap<String, Board>();
+        Map<String, Boolean> players = new HashMap<String, Boolean>();
+        for (String line : readResource("/perft/positions.txt")) {
+            String[] parts = line.split("\\s+", 2);
+            boards.put(parts[0], Perft.parseBoard(parts[1]));
+            players.put(parts[0], parts[1].startsWith("W"));
+        }
+        int checked = 0;
+        for (String line : readResource("/perft/golden.txt")) {
+            String[] parts = line.split("\\s+");
+            int depth = Integer.parseInt(parts[1]);
+            // deeper counts are left to PerftRunner, they take seconds
+            if (depth > 1 && !parts[0].equals("bearoff"))
+                continue;
+            Board board = boards.get(parts[0]);
+            byte[] before = board.getCheckers();
+            assertEquals(line, Long.parseLong(parts[2]), Perft.count(board, players.get(parts[0]), depth));
+            assertArrayEquals(before, board.getCheckers());
+            checked++;
+        }
+        assertEquals(8, checked);
+    }
+
+    @Test
+    public void testGameDriverPlaysToTheEnd() {
+        GameDriver driver = new GameDriver(new RandomMoveChooser(1), new GreedyMoveChooser(), new Dice());
+        driver.setBearoffDatabase(null);
+        for (int i = 0; i < 20; i++) {
+            GameState state = driver.playGame();
+            assertNotEquals(GameState.STILL_PLAYING, state);
+            assertTrue(driver.getTurns() > 0);
+        }
+
+        // black has one piece left on its 1 point and throws first
+        Board board = new Board();
+        board.setCheckers(new byte[] { 0, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 4, 0, 0, 11, -14 });
+        GameState state = driver.playGame(board, false);
+        assertEquals(GameState.BLACK_WON, state);
+        assertEquals(1, driver.getTurns());
+        assertEquals(0, board.countBlack());
+    }
+
+    @Test
+    public void testRolloutOfFinishedRace() {
+        // white can't bear off yet, black is left with one piece on its 1 point
+        Board board = new Board();
+        board.setCheckers(new byte[] { 0, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 13, -14 });
+        board.setDices(new int[] { 2, 1 });
+        board.setPlayers(true);
+        ArrayList<Play> plays = board.findValidPlays();
+        RolloutResult[] results = new Rollout(GreedyMoveChooser::new).rollout(board, plays, 100);
+        assertEquals(plays.size(), results.length);
+        for (RolloutResult result : results) {
+            assertEquals(100, result.getGames());
+            assertEquals(-1.0, result.getEquity(), 0);
+            assertEquals(0.0, result.getStandardError(), 0);
+        }
+    }
+
+    @Test
+    public void testRolloutDiceSpreadsFirstRoll() {
+        RolloutDice dice = new RolloutDice(3, 2);
+        boolean[] seen = new boolean[36];
+        for (int pair = 0; pair < 36; pair++) {
+            dice.startGame(2 * pair);
+            dice.throwDices();
+            int[] first = dice.getDices();
+            dice.throwDices();
+            int[] second = dice.getDices();
+            seen[(first[0] - 1) * 6 + first[1] - 1] = true;
+
+            // mirrored game gives each player the other one's rolls
+            dice.startGame(2 * pair + 1);
+            dice.throwDices();
+            assertArrayEquals(second, dice.getDices());
+            dice.throwDices();
+            assertArrayEquals(first, dice.getDices());
+        }
+        for (boolean outcome : seen) {
+            assertTrue(outcome);
+        }
+    }
+
+    @Test
+    public void testSeededDiceRepeatGames() {
+        // first numbers of the reference xoshiro256** from state 1, 2, 3, 4
+        Xoshiro256StarStar xoshiro = new Xoshiro256StarStar(1, 2, 3, 4);
+        assertEquals(11520L, xoshiro.nextLong());
+        assertEquals(0L, xoshiro.nextLong());
+        assertEquals(1509978240L, xoshiro.nextLong());
+        assertEquals(1215971899390074240L, xoshiro.nextLong());
+
+        Dice first = new Dice(7);
+        Dice second = new Dice(new SplittableRandomSource(), 7);
+        Dice third = new Dice(new Xoshiro256StarStar(0), 7);
+        first.startGame(5);
+        third.startGame(5);
+        for (int i = 0; i < 20; i++) {
+            first.throwDices();
+            third.throwDices();
+            second.throwDices();
+            assertArrayEquals(first.getDices(), third.getDices());
+            int[] dices = second.getDices();
+            assertTrue(dices[0] >= 1 && dices[0] <= 6 && dices[1] >= 1 && dices[1] <= 6);
+        }
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testMappedDiceReadsFile() throws IOException {
+        java.io.File file = java.io.File.createTempFile("dice", ".bin");
+        file.deleteOnExit();
+        java.nio.file.Files.write(file.toPath(), new byte[] { 0, 35, 7, 20 });
+        java.nio.ByteBuffer rolls = MappedDice.map(file.toPath());
+
+        MappedDice dice = new MappedDice(rolls);
+        int[][] expected = { { 1, 1 }, { 6, 6 }, { 2, 2 }, { 4, 3 }, { 1, 1 } };
+        for (int[] roll : expected) {
+            dice.throwDices();
+            assertArrayEquals(roll, dice.getDices());
+        }
+
+        // game 1 starts at the third roll
+        MappedDice gameDice = new MappedDice(rolls, 2);
+        gameDice.startGame(1);
+        gameDice.throwDices();
+        assertArrayEquals(new int[] { 2, 2 }, gameDice.getDices());
+    }
+
+    @Test
+    public void testOneSidedBearoffDatabase() {
+        int[] points = new int[BearoffIndex.POINTS];
+        for (int index = 0; index < BearoffIndex.getPositions(4); index++) {
+            BearoffIndex.layoutOf(index, points);
+            assertEquals(index, BearoffIndex.indexOf(points));
+        }
+
+        OneSidedBearoff database = new OneSidedBearoff(new OneSidedBearoffGenerator(3).generate());
+        // one piece on the 6 point is off unless the dices add up to less than 6
+        int six = BearoffIndex.indexOf(new int[] { 0, 0, 0, 0, 0, 1 });
+        assertEquals(1.25, database.getExpectedRolls(six), 1e-6);
+        assertEquals(0.75, database.getOffInRolls(six, 1), 1e-4);
+
+        Board board = new Board();
+        board.setCheckers(new byte[] { 0, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 13, -14 });
+        assertEquals(BearoffIndex.indexOf(new int[] { 0, 0, 0, 0, 0, 2 }), database.indexOf(board, Color.WHITE));
+        assertEquals(BearoffIndex.indexOf(new int[] { 1, 0, 0, 0, 0, 0 }), database.indexOf(board, Color.BLACK));
+        // black is off with any roll, white only with 3-3 or a higher double
+        assertEquals(1.0, database.getWinningChance(board, Color.BLACK), 1e-4);
+        assertEquals(4 / 36.0, database.getWinningChance(board, Color.WHITE), 1e-4);
+        assertEquals(-1, database.indexOf(new Board(), Color.WHITE));
+    }
+
+    @Test
+    public void testTwoSidedBearoffSettlesGames() {
+        TwoSidedBearoff database = new TwoSidedBearoff(new TwoSidedBearoffGenerator(2).generate());
+        Board board = new Board();
+        board.setCheckers(new byte[] { 0, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 13, -14 });
+        assertEquals(4 / 36.0, database.getWinningChance(board, Color.WHITE), 1e-4);
+        assertEquals(1.0, database.getWinningChance(board, Color.BLACK), 1e-4);
+        assertEquals(-1, database.getWinningChance(new Board(), Color.WHITE), 0);
+
+        GameDriver driver = new GameDriver(new GreedyMoveChooser(), new GreedyMoveChooser(), new Dice());
+        driver.setBearoffDatabase(database);
+        assertEquals(GameState.STILL_PLAYING, driver.playGame(board, true));
+        assertEquals(0, driver.getTurns());
+        assertEquals(4 / 36.0, driver.getWhiteWinningChance(), 1e-4);
+
+        // hint plays are the ones the database likes best
+        board.setDices(new int[] { 2, 1 });
+        board.setPlayers(true);
+        ArrayList<Play> plays = board.findValidPlays();
+        Play best = database.getBestPlay(plays);
+        for (Play play : plays) {
+            assertTrue(database.getWinningChance(best) >= database.getWinningChance(play));
+        }
+        Board start = new Board();
+        start.setDices(new int[] { 2, 1 });
+        start.setPlayers(true);
+        assertNull(database.getBestPlay(start.findValidPlays()));
+
+        // pairs of more pieces overflow int offsets and one file mapping
+        try {
+            new TwoSidedBearoffGenerator(TwoSidedBearoff.MAX_PIECES + 1);
+            fail("too many pieces");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testNeuralNetEvaluatesBatches() throws IOException {
+        NeuralNetEvaluator net = NeuralNetEvaluator.createRandom(16, 7);
+        Path file = Files.createTempFile("weights", ".bgn");
+        try {
+            net.save(file);
+            NeuralNetEvaluator loaded = NeuralNetEvaluator.load(file);
+
+            Board board = new Board();
+            board.setDices(new int[] { 3, 1 });
+            board.setPlayers(true);
+            ArrayList<Play> plays = board.findValidPlays();
+            byte[][] positions = new byte[plays.size()][];
+            for (int i = 0; i < plays.size(); i++) {
+                Board next = new Board(board);
+                next.playTurn(plays.get(i));
+                positions[i] = next.getCheckers();
+            }
+            float[] batch = new float[plays.size() * Evaluator.OUTPUTS];
+            loaded.evaluate(positions, positions.length, Color.BLACK, batch);
+
+            float[] single = new float[Evaluator.OUTPUTS];
+            for (int i = 0; i < positions.length; i++) {
+                net.evaluate(new byte[][] { positions[i] }, 1, Color.BLACK, single);
+                for (int o = 0; o < Evaluator.OUTPUTS; o++) {
+                    assertEquals(single[o], batch[i * Evaluator.OUTPUTS + o], 0);
+                    assertTrue(single[o] >= 0 && single[o] <= 1);
+                }
+                assertTrue(single[Evaluator.WIN_GAMMON] <= single[Evaluator.WIN]);
+                assertTrue(single[Evaluator.LOSE_BACKGAMMON] <= single[Evaluator.LOSE_GAMMON]);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPlayRankerUpdatesFieldsOfPlays() {
+        NeuralNetEvaluator net = NeuralNetEvaluator.createRandom(16, 11);
+        Board board = new Board();
+        board.setCheckers(new byte[] { 0, -2, 0, 0, 0, 3, 5, 0, 2, -1, 0, 0, -3, 1, 0, 0, 0, -5, 0, -3, 0, 2, 1, 0, -1, 0, 1, 0 });
+        board.setDices(new int[] { 6, 4 });
+        board.setPlayers(true);
+        ArrayList<Play> plays = board.findValidPlays();
+
+        // the net only as Evaluator scores every board from scratch
+        ScoredPlay[] fromScratch = new PlayRanker(net::evaluate).rank(board, plays);
+        ScoredPlay[] incremental = new PlayRanker(net).rank(board, plays);
+        assertEquals(plays.size(), incremental.length);
+        for (int i = 0; i < incremental.length; i++) {
+            assertEquals(fromScratch[i].getEquity(), incremental[i].getEquity(), 1e-4);
+            if (i > 0)
+                assertTrue(incremental[i - 1].getEquity() >= incremental[i].getEquity());
+        }
+        assertEquals(incremental[0].getPlay(), new EvaluatorMoveChooser(net).choosePlay(board, plays));
+    }
+
+    @Test
+    public void testTwoPlySearchAveragesReplies() {
+        TwoPlySearch search = new TwoPlySearch(NeuralNetEvaluator.createRandom(8, 3));
+        // white has its 6 and 5 points left, black one piece on its 1 point
+        Board board = new Board();
+        board.setCheckers(new byte[] { 0, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 0, 0, 0, 0, 0, 13, -14 });
+        board.setDices(new int[] { 2, 1 });
+        board.setPlayers(true);
+        // black bears off with every roll whatever white plays
+        for (ScoredPlay scored : search.search(board, board.findValidPlays()))
+            assertEquals(-1, scored.getEquity(), 1e-6);
+
+        board.setDices(new int[] { 6, 5 });
+        board.setPlayers(true);
+        ScoredPlay[] scored = search.search(board, board.findValidPlays());
+        assertEquals(1, scored[0].getEquity(), 1e-6);
+
+        // same for black, which throws negative dices
+        board.setCheckers(new byte[] { 0, 0, 0, 0, 0, -1, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 14, -13 });
+        board.setDices(new int[] { 2, 1 });
+        board.setPlayers(false);
+        for (ScoredPlay each : search.search(board, board.findValidPlays()))
+            assertEquals(-1, each.getEquity(), 1e-6);
+    }
+
+    @Test
+    public void testPlayFilterKeepsBestAndClosePlays() {
+        Board board = new Board();
+        board.setDices(new int[] { 6, 5 });
+        board.setPlayers(true);
+        ArrayList<Play> plays = board.findValidPlays();
+        float[] wins = { 0.75f, 0.72f, 0.6f, 0.55f };
+        ScoredPlay[] ranked = new ScoredPlay[wins.length];
+        for (int i = 0; i < wins.length; i++)
+            ranked[i] = new ScoredPlay(plays.get(i), new float[] { wins[i], 0, 0, 0, 0 });
+
+        // equities 0.5, 0.44, 0.2 and 0.1
+        assertEquals(2, new PlayFilter(1, 0.1f).filter(ranked).size());
+        assertEquals(3, new PlayFilter(3, 0).filter(ranked).size());
+        assertEquals(4, new PlayFilter(1, 0.5f).filter(ranked).size());
+        assertEquals(plays.get(0), new PlayFilter(1, 0).filter(ranked).get(0));
+
+        TwoPlySearch search = new TwoPlySearch(NeuralNetEvaluator.createRandom(8, 5));
+        search.setFilter(new PlayFilter(2, 0));
+        assertEquals(plays.size(), search.search(board, plays).length);
+    }
+
+    @Test
+    public void testPositionClassAndRaceEvaluator() {
+        Board board = new Board();
+        assertEquals(PositionClass.CONTACT, board.getPositionClass());
+        // both players on their 7-12 points, passed each other
+        byte[] race = { 0, 0, 0, 0, 0, 0, 0, -2, -3, -3, -2, -2, -3, 3, 2, 2, 3, 3, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+        board.setCheckers(race);
+        assertEquals(PositionClass.RACE, board.getPositionClass());
+        assertEquals(PositionClass.RACE, Board.getPositionClass(race));
+
+        // moving classes on every turn of a game, same as from the packed board
+        GameDriver driver = new GameDriver(new GreedyMoveChooser(), new GreedyMoveChooser(), new Dice(9));
+        driver.setBearoffDatabase(null);
+        board = new Board();
+        driver.playGame(board, true);
+        assertEquals(Board.getPositionClass(board.getCheckers()), board.getPositionClass());
+        board.setCheckers(new byte[] { 0, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 13, -14 });
+        assertEquals(PositionClass.BEAROFF, board.getPositionClass());
+
+        RaceEvaluator evaluator = new RaceEvaluator();
+        float[] outputs = new float[2 * Evaluator.OUTPUTS];
+        // same pips, black throws first
+        evaluator.evaluate(new byte[][] { race, race }, 1, Color.BLACK, outputs);
+        assertTrue(outputs[Evaluator.WIN] > 0.5 && outputs[Evaluator.WIN] < 0.7);
+        assertEquals(0, outputs[Evaluator.WIN_GAMMON], 1e-3);
+
+        // white has all off but one piece on its 1 point, black is far from home
+        byte[] far = { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -5, -5, -5, 0, 0, 0, 0, 0, 0, 1, 0, 14, 0 };
+        evaluator.evaluate(new byte[][] { far }, 1, Color.WHITE, outputs);
+        assertEquals(1, outputs[Evaluator.WIN], 1e-3);
+        assertEquals(1, outputs[Evaluator.WIN_GAMMON], 1e-3);
+        assertEquals(0, outputs[Evaluator.LOSE_GAMMON], 1e-3);
+
+        // a ranker leaves every play of a race to the race evaluator
+        board.setCheckers(race);
+        board.setDices(new int[] { 6, 5 });
+        board.setPlayers(true);
+        ArrayList<Play> plays = board.findValidPlays();
+        ScoredPlay[] raced = new PlayRanker(evaluator).rank(board, plays);
+        ScoredPlay[] classified = new PlayRanker(new ClassifyingEvaluator(
+                NeuralNetEvaluator.createRandom(8, 1), evaluator)).rank(board, plays);
+        for (int i = 0; i < raced.length; i++) {
+            assertEquals(raced[i].getEquity(), classified[i].getEquity(), 0);
+        }
+    }
+
+    @Test
+    public void testOpeningBookPlaysFirstRolls() throws IOException {
+        Rollout rollout = new Rollout(GreedyMoveChooser::new);
+        rollout.setBearoffDatabase(null);
+        rollout.setOpeningBook(null);
+        OpeningBook book = new OpeningBookGenerator(rollout, 2).generate(1);
+        // every roll of either player has more than one play from the start
+        assertEquals(42, book.size());
+
+        Path file = Files.createTempFile("opening", ".book");
+        try {
+            book.save(file);
+            book = OpeningBook.load(file);
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals(21, Dice.getRollIndex(new int[] { 6, 6 }) + 1);
+        assertEquals(Dice.getRollIndex(new int[] { 1, 3 }), Dice.getRollIndex(new int[] { -3, -1 }));
+
+        Board board = new Board();
+        board.setDices(new int[] { 3, 1 });
+        board.setPlayers(false);
+        ArrayList<Play> plays = board.findValidPlays();
+        Play play = book.getPlay(board, new int[] { 3, 1 }, plays);
+        assertTrue(plays.contains(play));
+        assertFalse(Float.isNaN(book.getEquity(board, new int[] { 1, 3 })));
+
+        board.playTurn(play);
+        board.setDices(new int[] { 3, 1 });
+        board.setPlayers(true);
+        assertNull(book.getPlay(board, new int[] { 3, 1 }, board.findValidPlays()));
+    }
+
+    @Test
+    public void testGammonsCubeAndMatchEquity() {
+        // white has all off, black has two pieces on its 6 point
+        byte[] gammon = new byte[Board.TOTAL_NO_OF_FIELDS];
+        gammon[6] = -2;
+        gammon[Board.BLACKBEAROFF] = -13;
+        gammon[Board.WHITEBEAROFF] = 15;
+        assertEquals(1, Board.getGamePoints(gammon));
+        gammon[Board.BLACKBEAROFF] = 0;
+        gammon[6] = -15;
+        assertEquals(2, Board.getGamePoints(gammon));
+        gammon[6] = -14;
+        gammon[20] = -1;
+        assertEquals(3, Board.getGamePoints(gammon));
+        Board board = new Board();
+        board.setCheckers(gammon);
+        assertEquals(3, board.getGamePoints());
+        assertEquals(0, new Board().getGamePoints());
+
+        Cube cube = new Cube();
+        assertTrue(cube.mayDouble(Color.WHITE));
+        cube.take(Color.BLACK);
+        assertEquals(2, cube.getValue());
+        assertFalse(cube.mayDouble(Color.WHITE));
+        assertEquals(6, cube.getPoints(3));
+        cube.reset(true);
+        assertFalse(cube.mayDouble(Color.BLACK));
+
+        MatchEquityTable table = MatchEquityTable.create(11, 0.26);
+        assertEquals(0.5, table.getEquity(5, 5), 1e-9);
+        assertEquals(1, table.getEquity(7, 3) + table.getEquity(3, 7), 1e-9);
+        assertTrue(table.getEquity(2, 5) > table.getEquity(3, 5));
+        assertEquals(1, table.getEquity(0, 4), 1e-9);
+        // after the Crawford game the trailer needing 2 doubles, an even game
+        assertEquals(0.5, table.getEquity(2, 1, true), 1e-9);
+
+        float[] chances = { 0.7f, 0, 0, 0, 0 };
+        CubeDecision money = CubeDecision.forMoney(chances, new Cube(), Color.WHITE);
+        assertTrue(money.isDouble());
+        assertTrue(money.isTake());
+        chances[Evaluator.WIN] = 0.8f;
+        money = CubeDecision.forMoney(chances, new Cube(), Color.WHITE);
+        assertTrue(money.isDouble());
+        assertFalse(money.isTake());
+        // leader needing 1 point after the Crawford game never gains by doubling
+        CubeDecision match = CubeDecision.forMatch(chances, new Cube(), Color.WHITE, table, 1, 5);
+        assertFalse(match.isDouble());
+
+        // no double when the cube doesn't allow it
+        Cube owned = new Cube();
+        owned.take(Color.BLACK);
+        assertFalse(CubeDecision.forMoney(chances, owned, Color.WHITE).isDouble());
+        assertTrue(CubeDecision.forMoney(chances, owned, Color.BLACK).isDouble());
+        Cube crawford = new Cube();
+        crawford.reset(true);
+        match = CubeDecision.forMatch(chances, crawford, Color.WHITE, table, 3, 1);
+        assertFalse(match.mayDouble());
+        assertFalse(match.isDouble());
+        // losing the Crawford game leaves the trailer 2 away after it
+        match = CubeDecision.forMatch(new float[Evaluator.OUTPUTS], crawford, Color.WHITE, table, 1, 3);
+        assertEquals(table.getEquity(1, 2, true), match.getNoDouble(), 1e-9);
+        assertEquals(0.5, match.getNoDouble(), 1e-9);
+
+        try {
+            table.getEquity(12, 3);
+            fail("score beyond the table");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            Path file = Files.createTempFile("met", ".txt");
+            Files.write(file, "1\n1.5\n0.5\n".getBytes());
+            try {
+                MatchEquityTable.load(file);
+                fail("chance above 1");
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+        }
+    }
+
+    @Test
+    public void testGameDriverPlaysWithTheCube() {
+        // every player thinks it wins 80%, doubles and the opponent passes
+        float[] win = { 0.8f };
+        Evaluator evaluator = (positions, count, onRoll, outputs) -> {
+            for (int i = 0; i < count; i++) {
+                outputs[i * Evaluator.OUTPUTS + Evaluator.WIN] = win[0];
+            }
+        };
+        GameDriver driver = new GameDriver(new GreedyMoveChooser(), new GreedyMoveChooser(), new Dice(5));
+        Cube cube = new Cube();
+        driver.setCube(cube, new EvaluatorCubeChooser(evaluator));
+        assertEquals(GameState.WHITE_WON, driver.playGame(new Board(), true));
+        assertEquals(0, driver.getTurns());
+        assertEquals(1, driver.getPoints());
+        assertEquals(1, cube.getValue());
+
+        // at 70% doubles are taken and the cube goes up
+        win[0] = 0.7f;
+        GameState state = driver.playGame(new Board(), true);
+        assertTrue(state == GameState.WHITE_WON || state == GameState.BLACK_WON);
+        assertTrue(cube.getValue() > 1);
+        assertEquals(driver.getGamePoints() * cube.getValue(), driver.getPoints());
+
+        // no doubles in the Crawford game
+        cube.reset(true);
+        win[0] = 0.8f;
+        driver.playGame(new Board(), true);
+        assertTrue(driver.getTurns() > 0);
+        assertEquals(1, cube.getValue());
+    }
+
+    @Test
+    public void testPositionIdRoundTrips() {
+        Board board = new Board();
+        assertEquals("4HPwATDgc/ABMA", board.getPositionId());
+        assertEquals(PositionId.LENGTH, board.getPositionId().length());
+
+        byte[] keys = new byte[2 * PositionId.SIZE];
+        byte[] position = new byte[Board.TOTAL_NO_OF_FIELDS];
+        Random random = new Random(7);
+        for (int turn = 0; turn < 200 && board.checkWin() == GameState.STILL_PLAYING; turn++) {
+            board.setDices(new int[] { 1 + random.nextInt(6), 1 + random.nextInt(6) });
+            board.setPlayers(turn % 2 == 0);
+            ArrayList<Play> plays = board.findValidPlays();
+            if (!plays.isEmpty())
+                board.playTurn(plays.get(random.nextInt(plays.size())));
+
+            Color onRoll = turn % 2 == 0 ? Color.BLACK : Color.WHITE;
+            PositionId.encode(board.getCheckers(), onRoll, keys, PositionId.SIZE);
+            PositionId.decode(keys, PositionId.SIZE, onRoll, position);
+            assertArrayEquals(board.getCheckers(), position);
+
+            Board copy = new Board();
+            copy.setCheckers(new byte[Board.TOTAL_NO_OF_FIELDS]);
+            copy.setPositionId(PositionId.toString(PositionId.encode(position, onRoll)), onRoll);
+            assertArrayEquals(position, copy.getCheckers());
+        }
+
+        try {
+            PositionId.decode(PositionId.parse("//////////////"), Color.WHITE);
+            fail("too many pieces");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    private ArrayList<String> readResource(String name) throws IOException {
+        ArrayList<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(getClass().getResourceAsStream(name), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#"))
+                    lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+}